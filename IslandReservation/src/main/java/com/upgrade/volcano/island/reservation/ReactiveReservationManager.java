@@ -0,0 +1,79 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.model.AvailabilityBitmap;
+import com.upgrade.volcano.island.reservation.model.AvailableDates;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking facade over ReservationManager for the reactive stack.
+ * Reads are lock-free (availability snapshot, concurrent lookup maps) and run on the subscribing thread,
+ * so they are safe on event loop threads. Calendar mutations wait for the manager lock and are moved
+ * to the bounded elastic scheduler.
+ */
+@Service
+public class ReactiveReservationManager {
+
+    private final ReservationManager reservationManager;
+    private final Scheduler mutationScheduler = Schedulers.boundedElastic();
+
+    @Autowired
+    public ReactiveReservationManager(ReservationManager reservationManager) {
+        this.reservationManager = reservationManager;
+    }
+
+    public Mono<AvailableDates> getAvailableDates(LocalDate startDate, LocalDate endDate) {
+        return Mono.fromCallable(() -> reservationManager.getAvailableDates(startDate, endDate));
+    }
+
+    public Mono<AvailabilityBitmap> getAvailabilityBitmap(LocalDate startDate, LocalDate endDate) {
+        return Mono.fromCallable(() -> reservationManager.getAvailabilityBitmap(startDate, endDate));
+    }
+
+    public Mono<ReservationBO> getReservation(String reservationId) {
+        return Mono.fromCallable(() -> reservationManager.getReservation(reservationId));
+    }
+
+    public Flux<ReservationBO> getReservationsByEmail(String email, int page, int size) {
+        return Flux.defer(() -> Flux.fromIterable(reservationManager.getReservationsByEmail(email, page, size)));
+    }
+
+    public Mono<ReservationBO> reserveCampsite(ReservationBO reservationBO) {
+        return Mono.fromCallable(() -> reservationManager.reserveCampsite(reservationBO)).subscribeOn(mutationScheduler);
+    }
+
+    public Mono<ReservationBO> updateReservation(String reservationId, ReservationBO reservationBO) {
+        return Mono.fromCallable(() -> reservationManager.updateReservation(reservationId, reservationBO)).subscribeOn(mutationScheduler);
+    }
+
+    public Mono<Void> cancelReservation(String reservationId, String userId) {
+        return Mono.<Void>fromRunnable(() -> reservationManager.cancelReservation(reservationId, userId)).subscribeOn(mutationScheduler);
+    }
+
+    public Mono<ReservationBO> holdCampsite(ReservationBO reservationBO) {
+        return Mono.fromCallable(() -> reservationManager.holdCampsite(reservationBO)).subscribeOn(mutationScheduler);
+    }
+
+    public Mono<ReservationBO> confirmHold(String holdId, String userId) {
+        return Mono.fromCallable(() -> reservationManager.confirmHold(holdId, userId)).subscribeOn(mutationScheduler);
+    }
+
+    public Mono<Void> releaseHold(String holdId, String userId) {
+        return Mono.<Void>fromRunnable(() -> reservationManager.releaseHold(holdId, userId)).subscribeOn(mutationScheduler);
+    }
+
+    public Mono<ReservationBO> joinWaitlist(ReservationBO reservationBO) {
+        return Mono.fromCallable(() -> reservationManager.joinWaitlist(reservationBO)).subscribeOn(mutationScheduler);
+    }
+
+    public Mono<Void> leaveWaitlist(String waitlistId, String userId) {
+        return Mono.<Void>fromRunnable(() -> reservationManager.leaveWaitlist(waitlistId, userId)).subscribeOn(mutationScheduler);
+    }
+}
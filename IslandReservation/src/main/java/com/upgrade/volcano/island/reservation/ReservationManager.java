@@ -1,6 +1,26 @@
 package com.upgrade.volcano.island.reservation;
 
+import com.upgrade.volcano.island.reservation.engine.HashedTimingWheel;
+import com.upgrade.volcano.island.reservation.engine.MutationExecutor;
+import com.upgrade.volcano.island.reservation.event.AvailabilityFeed;
+import com.upgrade.volcano.island.reservation.event.OperationEventLog;
+import com.upgrade.volcano.island.reservation.event.ReservationEvent;
+import com.upgrade.volcano.island.reservation.event.ReservationEventBus;
+import com.upgrade.volcano.island.reservation.model.AvailabilityBitmap;
+import com.upgrade.volcano.island.reservation.model.AvailabilitySnapshot;
+import com.upgrade.volcano.island.reservation.model.AvailableDates;
+import com.upgrade.volcano.island.reservation.model.CancelledReservation;
+import com.upgrade.volcano.island.reservation.model.ClosureSummary;
+import com.upgrade.volcano.island.reservation.model.FreeRun;
+import com.upgrade.volcano.island.reservation.model.Hold;
+import com.upgrade.volcano.island.reservation.model.OccupancyReport;
+import com.upgrade.volcano.island.reservation.model.OccupancyStatistics;
 import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import com.upgrade.volcano.island.reservation.model.ReservationCalendar;
+import com.upgrade.volcano.island.reservation.model.ReservationIntervalIndex;
+import com.upgrade.volcano.island.reservation.model.Waitlist;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import com.upgrade.volcano.island.reservation.util.EpochDays;
 import com.upgrade.volcano.island.reservation.util.ReservationRepo;
 import lombok.extern.slf4j.Slf4j;
 import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
@@ -14,75 +34,120 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 
 @Slf4j
 @Service
 public class ReservationManager {
 
-    private Map<LocalDate, String> daysToReservationId = new HashMap<>();
-    private Map<String, ReservationBO> reservationLookupMap = new HashMap<>();
+    // Calendar id of days closed by admin, generated ids are 8 characters long so it can't clash
+    public static final String CLOSED_DAY_ID = "CLOSED";
+
+    private ReservationCalendar daysToReservationId = new ReservationCalendar();
+    private final Map<String, ReservationBO> reservationLookupMap = new ConcurrentHashMap<>();
+    // Secondary index: email -> reservationIds, maintained together with reservationLookupMap
+    private final Map<String, Set<String>> emailToReservationIds = new ConcurrentHashMap<>();
+    // Secondary index: reservations by date interval, only accessed inside mutations
+    private final ReservationIntervalIndex reservationIntervals = new ReservationIntervalIndex();
+    // Tentative bookings, their days are taken in calendar by holdId until confirmed, released or expired
+    private final Map<String, Hold> holdLookupMap = new ConcurrentHashMap<>();
+    // Requests for occupied dates, auto-booked once their days are freed
+    private final Waitlist waitlist = new Waitlist();
+    // Tombstones for incremental export in cancellation order, only accessed inside mutations
+    private final Deque<CancelledReservation> cancellations = new ArrayDeque<>();
+
+    // Day availability changes of the current mutation, published to the feed once mutation completes
+    private final Map<LocalDate, Boolean> availabilityChanges = new LinkedHashMap<>();
+    // Republished after every calendar mutation for lock-free availability reads
+    private volatile AvailabilitySnapshot availabilitySnapshot = AvailabilitySnapshot.EMPTY;
+    // Running occupancy aggregates, updated by mutations and read without lock
+    private final OccupancyStatistics statistics = new OccupancyStatistics();
+    // Calendar days taken by CLOSED_DAY_ID and by holds, published with availability snapshot
+    private int closedDays;
+    private int heldDays;
 
     private final ReservationRepo reservationUtil;
+    private final AvailabilityFeed availabilityFeed;
+    private final ReservationEventBus eventBus;
+    private final OperationEventLog operationLog;
+    // Runs calendar mutations one at a time, either under a lock or on a single writer thread
+    private final MutationExecutor mutationExecutor;
+    private final DayClock dayClock;
+    private final int horizonDays;
+    private final Duration holdTtl;
+    private final Duration cancellationRetention;
+    // Releases expired holds
+    private final HashedTimingWheel holdExpiryWheel;
 
     @Autowired
-    public ReservationManager(ReservationProperties properties, ReservationRepo reservationUtil) {
+    public ReservationManager(ReservationProperties properties, ReservationRepo reservationUtil,
+                              AvailabilityFeed availabilityFeed, ReservationEventBus eventBus, MutationExecutor mutationExecutor,
+                              DayClock dayClock, OperationEventLog operationLog) {
         this.reservationUtil = reservationUtil;
+        this.operationLog = operationLog;
+        this.dayClock = dayClock;
+        this.horizonDays = properties.getHorizonDays();
+        this.holdTtl = properties.getHoldTtl();
+        this.cancellationRetention = properties.getExportCancellationRetention();
+        this.holdExpiryWheel = new HashedTimingWheel("hold-expiry", properties.getHoldWheelTick(), properties.getHoldWheelSize());
+        this.mutationExecutor = mutationExecutor;
+        this.availabilityFeed = availabilityFeed;
+        this.eventBus = eventBus;
         if (properties.isRestoreBackup()) {
             // Restore reservations from files
             restoreReservations();
         }
-        if (daysToReservationId.isEmpty()) {
-            LocalDate now = LocalDate.now();
-            IntStream.rangeClosed(1, 30).forEach(i -> daysToReservationId.put(now.plusDays(i), null));
-        }
+        extendToHorizon();
+        publishCalendarChanges();
     }
 
     /**
-     * @return The list of available dates.
+     * Served from the published availability snapshot, no lock is taken.
+     *
+     * @return The list of available dates ordered by date.
      */
-    synchronized public List<LocalDate> getAvailableDates(LocalDate startDate, LocalDate endDate) {
-        log.info("Attempting to retrieve all available dates.");
-        List<LocalDate> dates = new ArrayList<>();
-        if(startDate == null && endDate == null){
-            // gather all available dates
-            dates = daysToReservationId.entrySet().stream()
-                    .filter(entry -> entry.getValue() == null)
-                    .map(Map.Entry::getKey).collect(Collectors.toList());
-        }
-        else if(endDate == null){
-            // gather all date starting tomorrow to the end date
-            for (Map.Entry<LocalDate, String> entry: daysToReservationId.entrySet()) {
-                if(entry.getValue() == null && entry.getKey().isAfter(startDate.minusDays(1))){
-                    dates.add(entry.getKey());
-                }
-            }
-        }
-        else if(startDate == null){
-            // gather all available dates from indicated start date
-            for (Map.Entry<LocalDate, String> entry: daysToReservationId.entrySet()) {
-                if(entry.getValue() == null && entry.getKey().isBefore(endDate.plusDays(1))){
-                    dates.add(entry.getKey());
-                }
-            }
-        }
-        else{
-            // gather dates from indicated start to end
-            for (Map.Entry<LocalDate, String> entry: daysToReservationId.entrySet()) {
-                if(entry.getValue() == null
-                        &&  entry.getKey().isAfter(startDate.minusDays(1)) && entry.getKey().isBefore(endDate.plusDays(1))){
-                    dates.add(entry.getKey());
-                }
+    public AvailableDates getAvailableDates(LocalDate startDate, LocalDate endDate) {
+        return availabilitySnapshot.getAvailableDates(startDate, endDate);
+    }
+
+    /**
+     * Served from the published availability snapshot as bitmap, no lock is taken.
+     *
+     * @return The AvailabilityBitmap
+     */
+    public AvailabilityBitmap getAvailabilityBitmap(LocalDate startDate, LocalDate endDate) {
+        return availabilitySnapshot.getAvailabilityBitmap(startDate, endDate);
+    }
+
+    /**
+     * Lock-free pre-check against the published availability snapshot, so requests for occupied dates
+     * are rejected without queueing for the calendar. Days held by the reservation being updated count as free.
+     * The snapshot can be stale, mutations always re-validate dates inside the critical section.
+     */
+    private void checkAvailable(LocalDate startDate, LocalDate endDate, ReservationBO heldBO) {
+        AvailabilitySnapshot snapshot = availabilitySnapshot;
+        for (long day = startDate.toEpochDay(), endDay = endDate.toEpochDay(); day <= endDay; day++) {
+            if (!snapshot.isAvailable(day) && (heldBO == null || !isWithinReservation(day, heldBO))) {
+                throw new ValidationException("The campsite for requested dates is occupied!");
             }
         }
-       return dates;
     }
 
     /**
@@ -91,29 +156,55 @@ public class ReservationManager {
      * @param reservationBO
      * @return The ReservationBO
      */
-    synchronized public ReservationBO reserveCampsite(ReservationBO reservationBO) {
-        return upsertReservation(reservationBO, null);
+    public ReservationBO reserveCampsite(ReservationBO reservationBO) {
+        return operationLog.record("reserve", reservationBO, () -> {
+            checkAvailable(reservationBO.getStartDate(), reservationBO.getEndDate(), null);
+            return mutationExecutor.execute(() -> {
+                ReservationBO reservedBO = upsertReservation(reservationBO, null);
+                statistics.booked(reservedBO, dayClock.getToday());
+                publishCalendarChanges();
+                eventBus.publish(ReservationEvent.created(reservedBO, dayClock.now()));
+                return reservedBO;
+            });
+        });
     }
 
     /**
-     * Update existing reservation by removing existing and adding updated reservation.
-     * If updated resrvation cannot be updated it will be re-added.
+     * Update existing reservation in place: only days the old reservation doesn't hold are validated,
+     * and the calendar is switched from old to new reservation in one mutation.
+     * Updated reservation gets a new reservationId, the old one is removed.
      *
      * @param newReservationBO
      * @return The ReservationBO
      */
-    synchronized public ReservationBO updateReservation(String reservationId, ReservationBO newReservationBO) {
-        ReservationBO oldReservationBO = reservationLookupMap.get(reservationId);
-        if (oldReservationBO == null) {
-            throw new ReservationNotFoundException("Reservation not found!");
-        }
-        // Check if reservation email matches / simple authentication
-        if (!newReservationBO.getEmail().equals(oldReservationBO.getEmail())) {
-            throw new AuthenticationException("Email doesn't match reservation registration email!");
-        }
-        // New reservation will have new reservationId
-        newReservationBO.setReservationId(null);
-        return upsertReservation(newReservationBO, oldReservationBO);
+    public ReservationBO updateReservation(String reservationId, ReservationBO newReservationBO) {
+        log.debug("Attempting to update reservation: {}", reservationId);
+        return operationLog.record("update", newReservationBO, () -> {
+            // Unknown reservation is reported as not found from inside the critical section
+            ReservationBO heldBO = reservationLookupMap.get(reservationId);
+            if (heldBO != null) {
+                checkAvailable(newReservationBO.getStartDate(), newReservationBO.getEndDate(), heldBO);
+            }
+            return mutationExecutor.execute(() -> {
+                ReservationBO oldReservationBO = reservationLookupMap.get(reservationId);
+                if (oldReservationBO == null) {
+                    throw new ReservationNotFoundException("Reservation not found!");
+                }
+                // Check if reservation email matches / simple authentication
+                if (!newReservationBO.getEmail().equals(oldReservationBO.getEmail())) {
+                    throw new AuthenticationException("Email doesn't match reservation registration email!");
+                }
+                // New reservation will have new reservationId
+                newReservationBO.setReservationId(null);
+                ReservationBO updatedBO = upsertReservation(newReservationBO, oldReservationBO);
+                // Old reservationId is gone, incremental export consumers must drop it
+                recordCancellation(oldReservationBO);
+                statistics.updated(oldReservationBO, bookedDay(oldReservationBO), updatedBO, dayClock.getToday());
+                publishCalendarChanges();
+                eventBus.publish(ReservationEvent.updated(updatedBO, oldReservationBO, dayClock.now()));
+                return updatedBO;
+            });
+        });
     }
 
     /**
@@ -124,38 +215,217 @@ public class ReservationManager {
      * @return The ReservationBO
      */
     private ReservationBO upsertReservation(ReservationBO newReservationBO, ReservationBO oldReservationBO) {
-        LocalDate startDate = newReservationBO.getStartDate();
-        LocalDate endDate = newReservationBO.getEndDate();
+        long startDay = newReservationBO.getStartDate().toEpochDay();
+        long endDay = newReservationBO.getEndDate().toEpochDay();
 
-        // Cancel old reservation if it's update, so we can reuse any dates in old reservation
-        if (oldReservationBO != null) {
-            cancelReservation(oldReservationBO.getReservationId(), oldReservationBO.getEmail());
+        // Check if requested dates are available, days held by the reservation being updated can be reused
+        for (long day = startDay; day <= endDay; day++) {
+            if (oldReservationBO != null && isWithinReservation(day, oldReservationBO)) {
+                continue;
+            }
+            if (daysToReservationId.get(day) != null) {
+                throw new ValidationException("The campsite for requested dates is occupied!");
+            }
         }
 
-        // Check if requested dates are available
-        for (LocalDate date = startDate; date.isBefore(endDate.plusDays(1)); date = date.plusDays(1)) {
-            if (daysToReservationId.get(date) != null) {
-                if (oldReservationBO != null) {
-                    // re-add old reservation
-                    addReservation(oldReservationBO);
+        if (oldReservationBO == null) {
+            return addReservation(newReservationBO);
+        }
+        // Only days dropped or added by the update change availability, shared days just pass to the new reservationId
+        long oldStartDay = oldReservationBO.getStartDate().toEpochDay();
+        long oldEndDay = oldReservationBO.getEndDate().toEpochDay();
+        String reservationId = RandomStringUtils.randomAlphanumeric(8);
+        for (long day = oldStartDay; day <= oldEndDay; day++) {
+            if (EpochDays.isWithin(day, startDay, endDay)) {
+                // Passed days of a stay in progress are already purged
+                if (daysToReservationId.contains(day)) {
+                    daysToReservationId.put(day, reservationId);
                 }
-                throw new ValidationException("The campsite for requested dates is occupied!");
+            } else {
+                freeDay(day);
             }
         }
-        return addReservation(newReservationBO);
+        for (long day = startDay; day <= endDay; day++) {
+            if (!EpochDays.isWithin(day, oldStartDay, oldEndDay)) {
+                setDay(day, reservationId);
+            }
+        }
+        removeReservation(oldReservationBO);
+        return registerReservation(newReservationBO, reservationId);
+    }
+
+    private static boolean isWithinReservation(long day, ReservationBO reservationBO) {
+        return EpochDays.isWithin(day, reservationBO.getStartDate(), reservationBO.getEndDate());
     }
 
     private ReservationBO addReservation(ReservationBO reservationBO) {
         // all good let's reserve
         String reservationId = reservationBO.getReservationId() != null ? reservationBO.getReservationId() : RandomStringUtils.randomAlphanumeric(8);
-        for (LocalDate date = reservationBO.getStartDate(); date.isBefore(reservationBO.getEndDate().plusDays(1)); date = date.plusDays(1)) {
-            daysToReservationId.put(date, reservationId);
+        for (long day = reservationBO.getStartDate().toEpochDay(), endDay = reservationBO.getEndDate().toEpochDay(); day <= endDay; day++) {
+            setDay(day, reservationId);
         }
+        return registerReservation(reservationBO, reservationId);
+    }
+
+    private ReservationBO registerReservation(ReservationBO reservationBO, String reservationId) {
         reservationBO.setReservationId(reservationId);
+        reservationBO.setModifiedAt(dayClock.now());
         reservationLookupMap.put(reservationId, reservationBO);
+        indexReservation(reservationBO);
         return reservationBO;
     }
 
+    /**
+     * Assign calendar day to reservation or free it with null, recording availability change for the feed.
+     */
+    private void setDay(long day, String reservationId) {
+        boolean contained = daysToReservationId.contains(day);
+        String previousId = contained ? daysToReservationId.get(day) : null;
+        boolean wasAvailable = contained && previousId == null;
+        daysToReservationId.put(day, reservationId);
+        if (CLOSED_DAY_ID.equals(previousId)) {
+            closedDays--;
+        }
+        if (CLOSED_DAY_ID.equals(reservationId)) {
+            closedDays++;
+        }
+        boolean available = reservationId == null;
+        if (wasAvailable != available) {
+            LocalDate date = EpochDays.toDate(day);
+            // Day flipped back within the same mutation, e.g. freed and booked from waitlist
+            if (availabilityChanges.remove(date) == null) {
+                availabilityChanges.put(date, available);
+            }
+        }
+    }
+
+    private void publishCalendarChanges() {
+        bookFromWaitlist();
+        availabilitySnapshot = AvailabilitySnapshot.of(daysToReservationId, closedDays, heldDays);
+        if (!availabilityChanges.isEmpty()) {
+            availabilityFeed.publish(availabilityChanges);
+            availabilityChanges.clear();
+        }
+    }
+
+    /**
+     * Book waitlisted requests, in join order, whose days were freed by the current mutation.
+     * Booked reservation keeps the waitlist id, guests are also notified through the reservation created event.
+     */
+    private void bookFromWaitlist() {
+        if (waitlist.isEmpty() || availabilityChanges.isEmpty()) {
+            return;
+        }
+        long[] freedDays = availabilityChanges.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .mapToLong(entry -> entry.getKey().toEpochDay())
+                .toArray();
+        ReservationBO request;
+        while (freedDays.length > 0
+                && (request = waitlist.pollFirstMatch(freedDays, day -> daysToReservationId.contains(day) && daysToReservationId.get(day) == null)) != null) {
+            // Waitlist id becomes the reservationId, like hold id on confirmation, so the guest already knows it
+            ReservationBO reservedBO = addReservation(request);
+            statistics.booked(reservedBO, dayClock.getToday());
+            eventBus.publish(ReservationEvent.created(reservedBO, dayClock.now()));
+        }
+    }
+
+    /**
+     * Join waitlist for dates that are taken now, request is booked automatically once they are freed.
+     *
+     * @param reservationBO
+     * @return The waitlisted ReservationBO, reservationId is the waitlist id
+     */
+    public ReservationBO joinWaitlist(ReservationBO reservationBO) {
+        return mutationExecutor.execute(() -> {
+            boolean available = true;
+            for (long day = reservationBO.getStartDate().toEpochDay(), endDay = reservationBO.getEndDate().toEpochDay(); day <= endDay; day++) {
+                if (daysToReservationId.get(day) != null) {
+                    available = false;
+                    break;
+                }
+            }
+            if (available) {
+                throw new ValidationException("The campsite for requested dates is available!");
+            }
+            reservationBO.setReservationId(RandomStringUtils.randomAlphanumeric(8));
+            reservationBO.setModifiedAt(dayClock.now());
+            waitlist.add(reservationBO);
+            return reservationBO;
+        });
+    }
+
+    /**
+     * Leave waitlist.
+     *
+     * @param waitlistId
+     * @param userId
+     */
+    public void leaveWaitlist(String waitlistId, String userId) {
+        mutationExecutor.execute(() -> {
+            ReservationBO reservationBO = waitlist.get(waitlistId);
+            if (reservationBO == null) {
+                throw new ReservationNotFoundException("Waitlist request not found!");
+            }
+            if (!userId.equals(reservationBO.getEmail())) {
+                throw new AuthenticationException("Email doesn't match waitlist request email!");
+            }
+            waitlist.remove(waitlistId);
+        });
+    }
+
+    /**
+     * Add missing days from tomorrow up to booking horizon as free days.
+     */
+    private void extendToHorizon() {
+        long today = dayClock.getToday();
+        for (long day = today + 1; day <= today + horizonDays; day++) {
+            if (!daysToReservationId.contains(day)) {
+                setDay(day, null);
+            }
+        }
+    }
+
+    private void removeReservation(ReservationBO reservationBO) {
+        reservationLookupMap.remove(reservationBO.getReservationId());
+        unindexReservation(reservationBO);
+    }
+
+    /**
+     * Day the reservation was booked or last moved, lead time is counted from it.
+     */
+    private long bookedDay(ReservationBO reservationBO) {
+        Instant modifiedAt = reservationBO.getModifiedAt();
+        return modifiedAt != null ? dayClock.toEpochDay(modifiedAt) : dayClock.getToday();
+    }
+
+    /**
+     * Keep tombstone of cancelled or replaced reservation for incremental export, tombstones past retention are dropped.
+     */
+    private void recordCancellation(ReservationBO reservationBO) {
+        Instant now = dayClock.now();
+        cancellations.addLast(new CancelledReservation(reservationBO.getReservationId(), reservationBO.getStartDate(),
+                reservationBO.getEndDate(), now));
+        Instant expired = now.minus(cancellationRetention);
+        while (cancellations.peekFirst().getCancelledAt().isBefore(expired)) {
+            cancellations.removeFirst();
+        }
+    }
+
+    private void indexReservation(ReservationBO reservationBO) {
+        emailToReservationIds.computeIfAbsent(reservationBO.getEmail(), email -> ConcurrentHashMap.newKeySet())
+                .add(reservationBO.getReservationId());
+        reservationIntervals.add(reservationBO);
+    }
+
+    private void unindexReservation(ReservationBO reservationBO) {
+        emailToReservationIds.computeIfPresent(reservationBO.getEmail(), (email, ids) -> {
+            ids.remove(reservationBO.getReservationId());
+            return ids.isEmpty() ? null : ids;
+        });
+        reservationIntervals.remove(reservationBO);
+    }
+
 
     /**
      * Cancel reservation by removing days and reference for the resrvationId
@@ -164,23 +434,243 @@ public class ReservationManager {
      * @param reservationId
      * @param userId
      */
-    synchronized public void cancelReservation(String reservationId, String userId) {
-        log.info("Attempting to cancel reservation: {}", reservationId);
-        ReservationBO reservationBO = reservationLookupMap.get(reservationId);
-        if (reservationBO == null) {
-            throw new ValidationException("Reservation not found!");
+    public void cancelReservation(String reservationId, String userId) {
+        log.debug("Attempting to cancel reservation: {}", reservationId);
+        operationLog.record("cancel", reservationId, () -> mutationExecutor.execute(() -> {
+            ReservationBO reservationBO = reservationLookupMap.get(reservationId);
+            if (reservationBO == null) {
+                throw new ValidationException("Reservation not found!");
+            }
+            if (!userId.equals(reservationBO.getEmail())) {
+                throw new ValidationException("Email is not associated with reservation!");
+            }
+
+            // Remove reservation days and reservation reference from lookup map
+            freeDays(reservationBO);
+            removeReservation(reservationBO);
+            recordCancellation(reservationBO);
+            statistics.cancelled(reservationBO, bookedDay(reservationBO), dayClock.getToday());
+            publishCalendarChanges();
+            eventBus.publish(ReservationEvent.cancelled(reservationBO, dayClock.now()));
+        }));
+    }
+
+    /**
+     * Close calendar days of range, e.g. when the volcano is active. Every overlapping reservation is cancelled and
+     * every overlapping hold released in one mutation, cancelled events are published as one batch.
+     * Days of cancelled reservations outside range are freed.
+     *
+     * @param startDate
+     * @param endDate
+     * @return The ClosureSummary
+     */
+    public ClosureSummary closeDates(LocalDate startDate, LocalDate endDate) {
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+        ClosureSummary summary = mutationExecutor.execute(() -> {
+            long today = dayClock.getToday();
+            List<ReservationBO> cancelled = reservationIntervals.overlapping(startDay, endDay);
+            for (ReservationBO reservationBO : cancelled) {
+                freeDays(reservationBO);
+                removeReservation(reservationBO);
+                recordCancellation(reservationBO);
+                statistics.cancelled(reservationBO, bookedDay(reservationBO), today);
+            }
+            int newlyClosedDays = 0;
+            int releasedHolds = 0;
+            for (long day = startDay; day <= endDay; day++) {
+                if (!daysToReservationId.contains(day)) {
+                    continue;
+                }
+                String id = daysToReservationId.get(day);
+                if (CLOSED_DAY_ID.equals(id)) {
+                    continue;
+                }
+                // Reservations are freed already, only holds can be left
+                Hold hold = id == null ? null : takeHold(id);
+                if (hold != null) {
+                    freeDays(hold.getReservationBO());
+                    releasedHolds++;
+                }
+                setDay(day, CLOSED_DAY_ID);
+                newlyClosedDays++;
+            }
+            publishCalendarChanges();
+            Instant now = dayClock.now();
+            int published = eventBus.publishAll(cancelled.stream()
+                    .map(reservationBO -> ReservationEvent.cancelled(reservationBO, now)).collect(Collectors.toList()));
+            return new ClosureSummary(newlyClosedDays,
+                    cancelled.stream().map(ReservationBO::getReservationId).collect(Collectors.toList()),
+                    releasedHolds, cancelled.size() - published);
+        });
+        log.info("Closed {} days from {} to {}, cancelled {} reservations and released {} holds", summary.getClosedDays(),
+                startDate, endDate, summary.getCancelledReservationIds().size(), summary.getReleasedHolds());
+        return summary;
+    }
+
+    /**
+     * Reopen closed days of range, freed days are offered to the waitlist first.
+     *
+     * @param startDate
+     * @param endDate
+     * @return Number of reopened days
+     */
+    public int reopenDates(LocalDate startDate, LocalDate endDate) {
+        return mutationExecutor.execute(() -> {
+            int reopenedDays = 0;
+            for (long day = startDate.toEpochDay(), endDay = endDate.toEpochDay(); day <= endDay; day++) {
+                if (daysToReservationId.contains(day) && CLOSED_DAY_ID.equals(daysToReservationId.get(day))) {
+                    setDay(day, null);
+                    reopenedDays++;
+                }
+            }
+            publishCalendarChanges();
+            return reopenedDays;
+        });
+    }
+
+    /**
+     * Hold requested dates for the guest until hold TTL passes, days are taken in calendar by holdId.
+     * Expired holds are released by the timing wheel.
+     *
+     * @param reservationBO
+     * @return The held ReservationBO, reservationId is the holdId
+     */
+    public ReservationBO holdCampsite(ReservationBO reservationBO) {
+        checkAvailable(reservationBO.getStartDate(), reservationBO.getEndDate(), null);
+        return mutationExecutor.execute(() -> {
+            long startDay = reservationBO.getStartDate().toEpochDay();
+            long endDay = reservationBO.getEndDate().toEpochDay();
+            for (long day = startDay; day <= endDay; day++) {
+                if (daysToReservationId.get(day) != null) {
+                    throw new ValidationException("The campsite for requested dates is occupied!");
+                }
+            }
+            String holdId = RandomStringUtils.randomAlphanumeric(8);
+            for (long day = startDay; day <= endDay; day++) {
+                setDay(day, holdId);
+            }
+            reservationBO.setReservationId(holdId);
+            reservationBO.setModifiedAt(dayClock.now());
+            HashedTimingWheel.Timeout timeout = holdExpiryWheel.schedule(() -> expireHold(holdId), holdTtl);
+            holdLookupMap.put(holdId, new Hold(reservationBO, timeout));
+            heldDays += (int) (endDay - startDay + 1);
+            publishCalendarChanges();
+            return reservationBO;
+        });
+    }
+
+    /**
+     * Convert hold to reservation, days stay taken by the same id so the calendar doesn't change.
+     *
+     * @param holdId
+     * @param userId
+     * @return The ReservationBO
+     */
+    public ReservationBO confirmHold(String holdId, String userId) {
+        log.info("Attempting to confirm hold: {}", holdId);
+        return mutationExecutor.execute(() -> {
+            Hold hold = removeHold(holdId, userId);
+            ReservationBO reservationBO = hold.getReservationBO();
+            reservationBO.setModifiedAt(dayClock.now());
+            reservationLookupMap.put(holdId, reservationBO);
+            indexReservation(reservationBO);
+            statistics.booked(reservationBO, dayClock.getToday());
+            // Days stay taken, snapshot moves them from held to booked
+            publishCalendarChanges();
+            eventBus.publish(ReservationEvent.created(reservationBO, dayClock.now()));
+            return reservationBO;
+        });
+    }
+
+    /**
+     * Release hold before it expires.
+     *
+     * @param holdId
+     * @param userId
+     */
+    public void releaseHold(String holdId, String userId) {
+        log.info("Attempting to release hold: {}", holdId);
+        mutationExecutor.execute(() -> {
+            freeDays(removeHold(holdId, userId).getReservationBO());
+            publishCalendarChanges();
+        });
+    }
+
+    private Hold removeHold(String holdId, String userId) {
+        Hold hold = holdLookupMap.get(holdId);
+        if (hold == null) {
+            throw new ReservationNotFoundException("Hold not found!");
+        }
+        if (!userId.equals(hold.getReservationBO().getEmail())) {
+            throw new AuthenticationException("Email doesn't match hold registration email!");
         }
-        if (!userId.equals(reservationBO.getEmail())) {
-            throw new ValidationException("Email is not associated with reservation!");
+        return takeHold(holdId);
+    }
+
+    /**
+     * Remove hold and cancel its expiry, its days stay taken by holdId until freed or confirmed.
+     *
+     * @return The removed Hold or null if there is none
+     */
+    private Hold takeHold(String holdId) {
+        Hold hold = holdLookupMap.remove(holdId);
+        if (hold != null) {
+            hold.getTimeout().cancel();
+            heldDays -= calendarDays(hold.getReservationBO());
+        }
+        return hold;
+    }
+
+    /**
+     * @return Number of reservation days still in calendar, days up to today are purged
+     */
+    private int calendarDays(ReservationBO reservationBO) {
+        int days = 0;
+        for (long day = reservationBO.getStartDate().toEpochDay(), endDay = reservationBO.getEndDate().toEpochDay(); day <= endDay; day++) {
+            if (daysToReservationId.contains(day)) {
+                days++;
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Runs on the timing wheel thread once hold TTL passed, hold can be confirmed or released in the meantime.
+     */
+    private void expireHold(String holdId) {
+        Hold expired = mutationExecutor.execute(() -> {
+            Hold hold = takeHold(holdId);
+            if (hold != null) {
+                freeDays(hold.getReservationBO());
+                publishCalendarChanges();
+            }
+            return hold;
+        });
+        if (expired != null) {
+            log.info("Hold expired: {}", holdId);
+        }
+    }
+
+    private void freeDays(ReservationBO reservationBO) {
+        for (long day = reservationBO.getStartDate().toEpochDay(), endDay = reservationBO.getEndDate().toEpochDay(); day <= endDay; day++) {
+            freeDay(day);
         }
+    }
 
-        // Remove reservation days and reservation reference from lookup map
-        LocalDate startDate = reservationBO.getStartDate();
-        LocalDate endDate = reservationBO.getEndDate();
-        for (LocalDate date = startDate; date.isBefore(endDate.plusDays(1)); date = date.plusDays(1)) {
-            daysToReservationId.put(date, null);
+    /**
+     * Free day of cancelled or moved reservation. Days of a reservation in progress up to today are already purged
+     * from calendar and must not come back as available.
+     */
+    private void freeDay(long day) {
+        if (daysToReservationId.contains(day)) {
+            setDay(day, null);
         }
-        reservationLookupMap.remove(reservationId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        holdExpiryWheel.stop();
     }
 
     /**
@@ -197,35 +687,142 @@ public class ReservationManager {
         return reservationBO;
     }
 
+    /**
+     * Get a page of reservations registered with the email, ordered by start date.
+     * Served from the email index, so no lock is taken and the lookup map is not scanned.
+     *
+     * @param email
+     * @param page zero based page number
+     * @param size page size
+     * @return The list of reservation BOs
+     */
+    public List<ReservationBO> getReservationsByEmail(String email, int page, int size) {
+        Set<String> reservationIds = emailToReservationIds.get(email);
+        if (reservationIds == null) {
+            return new ArrayList<>();
+        }
+        return reservationIds.stream()
+                .map(reservationLookupMap::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(ReservationBO::getStartDate).thenComparing(ReservationBO::getReservationId))
+                .skip((long) page * size)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reservations overlapping date range, both ends inclusive, served from the interval index.
+     *
+     * @param startDate
+     * @param endDate
+     * @return The list of reservation BOs ordered by start date
+     */
+    public List<ReservationBO> getReservationsOverlapping(LocalDate startDate, LocalDate endDate) {
+        return mutationExecutor.execute(() -> {
+            return reservationIntervals.overlapping(startDate.toEpochDay(), endDate.toEpochDay());
+        });
+    }
+
+    @VisibleForTesting
+    AvailabilitySnapshot getAvailabilitySnapshot() {
+        return availabilitySnapshot;
+    }
+
+    /**
+     * Served from running aggregates and the published availability snapshot, no lock is taken.
+     *
+     * @param days number of days up to today to report per day and week
+     * @return The OccupancyReport
+     */
+    public OccupancyReport getOccupancyReport(int days) {
+        AvailabilitySnapshot snapshot = availabilitySnapshot;
+        // Closed days are not bookable, held days are not booked yet
+        int calendarDays = snapshot.getDays() - snapshot.getClosedDays();
+        return statistics.report(dayClock.getToday(), days, calendarDays,
+                calendarDays - snapshot.getAvailableDays() - snapshot.getHeldDays());
+    }
+
+    /**
+     * Served from the published availability snapshot, no lock is taken.
+     *
+     * @return The earliest longest run of available days within range
+     */
+    public FreeRun getLongestFreeRun(LocalDate startDate, LocalDate endDate) {
+        return availabilitySnapshot.getLongestFreeRun(startDate, endDate);
+    }
+
+    /**
+     * Consistent snapshot of all reservations for export. Only references are copied inside a mutation,
+     * stored reservations are never mutated so they can be serialized afterwards.
+     *
+     * @return The array of reservation BOs
+     */
+    public ReservationBO[] snapshotReservations() {
+        return mutationExecutor.execute(() -> {
+            return reservationLookupMap.values().toArray(new ReservationBO[0]);
+        });
+    }
+
+    /**
+     * Cancellations within export retention. Taken after snapshotReservations and exported after reservations,
+     * so a reservation cancelled in between is still dropped by a consumer applying lines in order.
+     *
+     * @return The array of cancelled reservations in cancellation order
+     */
+    public CancelledReservation[] snapshotCancellations() {
+        return mutationExecutor.execute(() -> {
+            return cancellations.toArray(new CancelledReservation[0]);
+        });
+    }
+
+    /**
+     * Consistent snapshot of the calendar ordered by date, free days map to null.
+     *
+     * @return The sorted map of date to reservationId
+     */
+    public SortedMap<LocalDate, String> snapshotCalendar() {
+        return mutationExecutor.execute(() -> {
+            return daysToReservationId.toMap();
+        });
+    }
+
     /**
      * Runs cron job every day at midnight to remove-replace at least yesterday day and expired reservation.
      */
     @Scheduled(cron = "0 0 0 * * ?")
-    synchronized public void purgePassedReservations() {
+    public void purgePassedReservations() {
         log.info("Attempting to remove expired reservations.");
-        // Including now
-        LocalDate expiredDate = LocalDate.now();
-        Map<LocalDate, String> daysToReservationIdReplacementMap = new HashMap<>();
-        daysToReservationId.forEach((aDate, id) -> {
-            if (aDate.isAfter(expiredDate)) {
-                daysToReservationIdReplacementMap.put(aDate, id);
-            } else {
-                ReservationBO reservationBO = reservationLookupMap.get(id);
-                // reservation is part of expired date remove reservation lookup reference
-                if (reservationBO != null && reservationBO.getEndDate().isBefore(expiredDate)) {
-                    reservationLookupMap.remove(id);
+        // Purge runs at midnight, move cached today to the new day first
+        dayClock.refresh();
+        mutationExecutor.execute(() -> {
+            // Including now
+            long expiredDay = dayClock.getToday();
+            daysToReservationId.forEach((day, id) -> {
+                if (day <= expiredDay) {
+                    if (CLOSED_DAY_ID.equals(id)) {
+                        // Closed days are left out of occupancy
+                        closedDays--;
+                    } else {
+                        // Held days that pass unconfirmed count as free, other ids are reservations
+                        statistics.dayEnded(day, id != null && !holdLookupMap.containsKey(id));
+                    }
                 }
-            }
+                if (day <= expiredDay && id != null) {
+                    ReservationBO reservationBO = reservationLookupMap.get(id);
+                    // reservation is part of expired date remove reservation lookup reference
+                    if (reservationBO != null && reservationBO.getEndDate().toEpochDay() < expiredDay) {
+                        removeReservation(reservationBO);
+                        statistics.ended(reservationBO, bookedDay(reservationBO));
+                        eventBus.publish(ReservationEvent.expired(reservationBO, dayClock.now()));
+                    }
+                }
+            });
+            daysToReservationId.removeUpTo(expiredDay);
+            heldDays = holdLookupMap.values().stream().mapToInt(hold -> calendarDays(hold.getReservationBO())).sum();
+            waitlist.removeUpTo(expiredDay);
+            extendToHorizon();
+            publishCalendarChanges();
         });
-        // Replace old map
-        daysToReservationId = daysToReservationIdReplacementMap;
-        // Add dates up to a month
-        if (daysToReservationId.size() < 30) {
-            int currSize = daysToReservationId.size();
-            int target = currSize + 30;
-            LocalDate now = LocalDate.now();
-            IntStream.rangeClosed(30, target).forEach(i -> daysToReservationId.put(now.plusDays(i), null));
-        }
     }
 
     /**
@@ -234,28 +831,65 @@ public class ReservationManager {
     @Scheduled(cron = "0 0 0/1 * * ?")
     public void backupReservations() {
         log.info("Attempting to backup reservations.");
-        reservationUtil.backupReservations(daysToReservationId, reservationLookupMap);
+        // Calendar and reservations from the same mutation, so restore can't pair days with missing reservations
+        ReservationRepo.Backup backup = mutationExecutor.execute(() -> {
+            return new ReservationRepo.Backup(daysToReservationId.toMap(), new HashMap<>(reservationLookupMap));
+        });
+        reservationUtil.backupReservations(backup.getDaysToReservationId(), backup.getReservationLookupMap());
     }
 
     @VisibleForTesting
     public void restoreReservations() {
-        daysToReservationId = reservationUtil.restoreDaysToReservationIdMap();
-        reservationLookupMap = reservationUtil.restoreReservationLookupMap();
-        // Remove reservations in case it's been too long
-        purgePassedReservations();
+        ReservationRepo.Backup backup = reservationUtil.restore();
+        mutationExecutor.execute(() -> {
+            daysToReservationId = ReservationCalendar.of(backup.getDaysToReservationId());
+            reservationLookupMap.clear();
+            backup.getReservationLookupMap().forEach((id, reservationBO) -> {
+                if (reservationBO != null) {
+                    reservationLookupMap.put(id, reservationBO);
+                }
+            });
+            // Rebuild email index from restored reservations
+            emailToReservationIds.clear();
+            reservationIntervals.clear();
+            reservationLookupMap.values().forEach(this::indexReservation);
+            statistics.rebuild(reservationLookupMap.values(), this::bookedDay);
+            // Holds are not backed up, free days taken by them or by any other id without reservation, closed days stay closed
+            holdLookupMap.values().forEach(hold -> hold.getTimeout().cancel());
+            holdLookupMap.clear();
+            heldDays = 0;
+            closedDays = 0;
+            daysToReservationId.forEach((day, id) -> {
+                if (CLOSED_DAY_ID.equals(id)) {
+                    closedDays++;
+                } else if (id != null && !reservationLookupMap.containsKey(id)) {
+                    setDay(day, null);
+                }
+            });
+            // Remove reservations in case it's been too long
+            purgePassedReservations();
+        });
     }
 
     @VisibleForTesting
     public ReservationBO addTestData(ReservationBO reservationBO) {
-        return addReservation(reservationBO);
+        return mutationExecutor.execute(() -> {
+            ReservationBO addedBO = addReservation(reservationBO);
+            statistics.booked(addedBO, dayClock.getToday());
+            publishCalendarChanges();
+            return addedBO;
+        });
     }
 
     @VisibleForTesting
     public void printMaps() {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("-----------------------------------------");
-        daysToReservationId.forEach((k, v) -> log.debug(k + " - " + v));
+        daysToReservationId.forEach((k, v) -> log.debug("{} - {}", EpochDays.toDate(k), v));
         log.debug("-----------------------------------------");
-        reservationLookupMap.forEach((k, v) -> log.debug(k + " - " + v));
+        reservationLookupMap.forEach((k, v) -> log.debug("{} - {}", k, v));
         log.debug("-----------------------------------------");
     }
 }
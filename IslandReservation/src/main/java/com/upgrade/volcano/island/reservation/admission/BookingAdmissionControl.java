@@ -0,0 +1,67 @@
+package com.upgrade.volcano.island.reservation.admission;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admission control in front of booking endpoints: per client token bucket rate limit, keyed by guest email.
+ * Bucket map is capped, clients beyond the cap share one overflow bucket until idle buckets are evicted,
+ * so flooding with new emails neither grows the map nor escapes the limit.
+ * Requests for occupied dates are shed by ReservationManager itself before entering the critical section.
+ */
+@Component
+public class BookingAdmissionControl {
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflow;
+    private final ReservationProperties properties;
+
+    @Autowired
+    public BookingAdmissionControl(ReservationProperties properties) {
+        this.properties = properties;
+        this.overflow = newBucket();
+    }
+
+    /**
+     * Admit booking request or throw TooManyRequestsException.
+     *
+     * @param clientKey guest email
+     */
+    public void admit(String clientKey) {
+        if (!properties.isRateLimitEnabled()) {
+            return;
+        }
+        TokenBucket bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            // Cap is approximate under concurrent admits
+            bucket = buckets.size() < properties.getRateLimitMaxClients()
+                    ? buckets.computeIfAbsent(clientKey, key -> newBucket())
+                    : overflow;
+        }
+        if (!bucket.tryAcquire()) {
+            throw new TooManyRequestsException("Too many booking requests, please retry later!");
+        }
+    }
+
+    /**
+     * Drop buckets of idle clients, a full bucket is the same as no bucket.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        buckets.entrySet().removeIf(entry -> entry.getValue().isFull());
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private TokenBucket newBucket() {
+        return new TokenBucket(properties.getRateLimitCapacity(), properties.getRateLimitPerSecond());
+    }
+}
@@ -0,0 +1,214 @@
+package com.upgrade.volcano.island.reservation.admission;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.exception.ConflictException;
+import com.upgrade.volcano.island.reservation.exception.ServiceUnavailableException;
+import com.upgrade.volcano.island.reservation.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Completed responses of booking requests by client supplied Idempotency-Key, so retries are answered
+ * without running the booking again. A retry arriving while the first request is still running waits for its response,
+ * up to a timeout after which it gets 409. Failed requests are not kept, they can be retried with the same key;
+ * retries that waited get the same exception, or 503 when the request ended with an Error, cancelled or empty. Bounded by size, oldest completed keys are
+ * evicted first, and by TTL counted from completion. In-flight keys are never evicted, so the cache can be over size
+ * by up to the number of running requests.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Insertion order for size eviction
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Duration waitTimeout;
+
+    @Autowired
+    public IdempotencyCache(ReservationProperties properties) {
+        this.maxSize = properties.getIdempotencyCacheSize();
+        this.ttlNanos = properties.getIdempotencyTtl().toNanos();
+        this.waitTimeout = properties.getIdempotencyWaitTimeout();
+    }
+
+    /**
+     * Run action once per key, retries get the same response.
+     *
+     * @param idempotencyKey client key, action runs uncached when null
+     * @param scope          endpoint the key belongs to
+     * @param request        request body, a key reused with another body is rejected
+     * @param action         booking action
+     * @return The action response
+     */
+    public <T> T execute(String idempotencyKey, String scope, Object request, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        Entry entry = new Entry(scope + " " + idempotencyKey, request);
+        Entry existing = register(entry);
+        if (existing != null) {
+            return cast(await(existing));
+        }
+        try {
+            T response = action.get();
+            complete(entry, response);
+            return response;
+        } catch (RuntimeException e) {
+            fail(entry, e);
+            throw e;
+        } finally {
+            // Error thrown by action, retries must not wait for the entry forever
+            if (!entry.response.isDone()) {
+                fail(entry, null);
+            }
+        }
+    }
+
+    private Object await(Entry existing) {
+        try {
+            return existing.response.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (ExecutionException e) {
+            // Failures are stored as RuntimeException, see fail
+            throw (RuntimeException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    /**
+     * Reactive variant of execute, action is subscribed once per key.
+     */
+    public <T> Mono<T> executeReactive(String idempotencyKey, String scope, Object request, Supplier<Mono<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        return Mono.defer(() -> {
+            Entry entry = new Entry(scope + " " + idempotencyKey, request);
+            Entry existing = register(entry);
+            if (existing != null) {
+                return Mono.fromFuture(existing.response)
+                        .timeout(waitTimeout, Mono.defer(() -> Mono.error(inProgress())))
+                        .map(IdempotencyCache::<T>cast);
+            }
+            return action.get()
+                    .doOnNext(response -> complete(entry, response))
+                    .doOnError(e -> fail(entry, e))
+                    .doFinally(signal -> {
+                        // Cancelled or completed empty
+                        if (!entry.response.isDone()) {
+                            fail(entry, null);
+                        }
+                    });
+        });
+    }
+
+    private static ConflictException inProgress() {
+        return new ConflictException("Request with the same Idempotency-Key is still in progress!");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object response) {
+        return (T) response;
+    }
+
+    /**
+     * @return The live entry for the same key, or null when entry was registered
+     */
+    private Entry register(Entry entry) {
+        long now = System.nanoTime();
+        while (true) {
+            Entry existing = entries.putIfAbsent(entry.key, entry);
+            if (existing == null) {
+                insertionOrder.add(entry);
+                evict(now);
+                return null;
+            }
+            if (existing.isExpired(now)) {
+                entries.remove(entry.key, existing);
+                continue;
+            }
+            if (!Objects.equals(existing.request, entry.request)) {
+                throw new ValidationException("Idempotency-Key was already used with a different request!");
+            }
+            return existing;
+        }
+    }
+
+    private void complete(Entry entry, Object response) {
+        entry.expiresAt = System.nanoTime() + ttlNanos;
+        entry.response.complete(response);
+    }
+
+    /**
+     * Evict entry, waiting retries get the exception or 503 when there is none to answer with.
+     */
+    private void fail(Entry entry, Throwable e) {
+        entries.remove(entry.key, entry);
+        entry.response.completeExceptionally(e instanceof RuntimeException ? e
+                : new ServiceUnavailableException("Request with the same Idempotency-Key failed, retry!"));
+    }
+
+    private void evict(long now) {
+        Entry oldest;
+        // Head is dropped while expired or already removed as failed
+        while ((oldest = insertionOrder.peek()) != null && (oldest.isExpired(now) || entries.get(oldest.key) != oldest)) {
+            if (insertionOrder.remove(oldest)) {
+                entries.remove(oldest.key, oldest);
+            }
+        }
+        // Over size, oldest completed entries go first, in-flight ones are skipped so their retries still join them
+        Iterator<Entry> iterator = insertionOrder.iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entries.get(entry.key) != entry) {
+                iterator.remove();
+            } else if (!entry.isInFlight()) {
+                iterator.remove();
+                entries.remove(entry.key, entry);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        final String key;
+        final Object request;
+        final CompletableFuture<Object> response = new CompletableFuture<>();
+        // Set once response completes, in-flight requests don't expire
+        volatile long expiresAt = Long.MAX_VALUE;
+
+        Entry(String key, Object request) {
+            this.key = key;
+            this.request = request;
+        }
+
+        boolean isInFlight() {
+            return expiresAt == Long.MAX_VALUE;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt > 0;
+        }
+    }
+}
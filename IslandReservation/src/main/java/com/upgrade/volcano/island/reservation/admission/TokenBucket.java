@@ -0,0 +1,46 @@
+package com.upgrade.volcano.island.reservation.admission;
+
+/**
+ * Token bucket holding up to capacity tokens, refilled continuously at refillPerSecond.
+ * Clock is read under the bucket lock, so refills never go back in time.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    // Guarded by this
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    synchronized boolean tryAcquire() {
+        refill(System.nanoTime());
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * @return true if bucket is full again, so dropping it loses nothing
+     */
+    synchronized boolean isFull() {
+        refill(System.nanoTime());
+        return tokens >= capacity;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
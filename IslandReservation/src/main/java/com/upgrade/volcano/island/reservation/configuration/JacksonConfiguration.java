@@ -0,0 +1,45 @@
+package com.upgrade.volcano.island.reservation.configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Afterburner replaces reflection based property access of bean (de)serializers, e.g. for ReservationDTO,
+ * with generated bytecode. Spring Boot registers Module beans with the application ObjectMapper.
+ * Native images can't define classes at runtime, there serializers keep using reflection config from META-INF/native-image.
+ * CBOR converter lets service clients use the same endpoints with application/cbor instead of JSON.
+ */
+@Configuration(proxyBeanMethods = false)
+public class JacksonConfiguration {
+
+    @Bean
+    @Conditional(NotNativeImageCondition.class)
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+
+    /**
+     * Same modules and date settings as the JSON ObjectMapper, HttpMessageConverter beans are added to Spring MVC converters.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    static class NotNativeImageCondition implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return !NativeDetector.inNativeImage();
+        }
+    }
+}
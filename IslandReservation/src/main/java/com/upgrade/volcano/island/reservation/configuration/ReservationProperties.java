@@ -4,10 +4,73 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Data
-@Configuration
+@Configuration(proxyBeanMethods = false)
 @ConfigurationProperties(prefix = "campsite.reservation")
 public class ReservationProperties {
     private boolean restoreBackup;
     private boolean backup;
-}
\ No newline at end of file
+    // Compressed backup generations, a day of hourly backups by default
+    private String backupDir = "backup";
+    private int backupGenerations = 24;
+    private BackupCodec backupCodec = BackupCodec.GZIP;
+    // How many days ahead campsite can be booked, calendar holds days from tomorrow up to horizon
+    private int horizonDays = 30;
+    // Serve requests on virtual threads, requires JDK 21+
+    private boolean virtualThreads;
+    // Tentative bookings, expired by timing wheel with given tick and number of buckets
+    private Duration holdTtl = Duration.ofMinutes(5);
+    private Duration holdWheelTick = Duration.ofSeconds(1);
+    private int holdWheelSize = 512;
+    // Per guest token bucket on booking endpoints
+    private boolean rateLimitEnabled = true;
+    private int rateLimitCapacity = 10;
+    private double rateLimitPerSecond = 1;
+    // Buckets kept at most, clients beyond share one bucket until idle ones are evicted
+    private int rateLimitMaxClients = 100_000;
+    // Completed booking responses by Idempotency-Key
+    private int idempotencyCacheSize = 10_000;
+    private Duration idempotencyTtl = Duration.ofHours(1);
+    // How long a retry waits for the running request with the same key
+    private Duration idempotencyWaitTimeout = Duration.ofSeconds(10);
+    // Share of manager operations written to structured event log, 0 disables, 1 logs all
+    private double eventLogSampleRate = 0.01;
+    // Bearer token required by /api/campsite/admin endpoints, admin API is disabled when not set
+    private String adminToken;
+    // How long cancelled reservations are kept as tombstones for incremental export, kept in memory only
+    private Duration exportCancellationRetention = Duration.ofDays(7);
+    // Calendar mutation engine
+    private Engine engine = Engine.LOCKING;
+    private int engineMaxBatchSize = 256;
+    // Availability SSE feed
+    private Duration availabilityFeedTimeout = Duration.ofMinutes(30);
+    private int availabilityFeedBufferDays = 366;
+    private int availabilityFeedSenderThreads = 4;
+    // Subscriber whose send blocks longer is disconnected, its sender thread is replaced meanwhile
+    private Duration availabilityFeedSendTimeout = Duration.ofSeconds(5);
+    // Reservation event bus, buffer size is rounded up to power of two
+    private int eventBusBufferSize = 1024;
+    private int eventBusMaxBatchSize = 64;
+    // Events buffered off the ring per sink that can't lose events, publisher drops once ring and spill are full
+    private int eventBusSpillSize = 65_536;
+    // Email confirmation sink
+    private boolean emailConfirmation;
+    private String emailHost = "localhost";
+    private int emailPort = 25;
+    private String emailFrom = "reservations@volcano.island";
+
+    public enum Engine {
+        // Request threads run mutations under one lock
+        LOCKING,
+        // Request threads enqueue mutations to one writer thread
+        SINGLE_WRITER
+    }
+
+    public enum BackupCodec {
+        GZIP,
+        // Larger files and, with the pure Java commons-compress encoder, far slower than gzip
+        LZ4
+    }
+}
@@ -0,0 +1,24 @@
+package com.upgrade.volcano.island.reservation.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exits once the application is ready to take requests. Used by the appcds build profile to start the service once
+ * and archive the classes loaded during startup.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "campsite.reservation", name = "trainingRun", havingValue = "true")
+public class StartupTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("Training run started in {} ms, exiting.", System.currentTimeMillis() - event.getApplicationContext().getStartupDate());
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.upgrade.volcano.island.reservation.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel: timeouts are hashed into wheel buckets by deadline tick, one ticker thread
+ * advances the wheel and only visits the bucket of the current tick, so cost per tick doesn't depend
+ * on how many timeouts are outstanding. Timeouts further than one wheel revolution wait in their bucket
+ * for the remaining rounds. Scheduling from other threads goes through a lock-free queue,
+ * cancelled timeouts are dropped lazily when their bucket comes up.
+ * Expired tasks run on the ticker thread and should be short.
+ */
+@Slf4j
+public class HashedTimingWheel {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] wheel;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Thread ticker;
+    private final long startNanos;
+    private volatile boolean running = true;
+    // Ticker thread only
+    private long tick;
+
+    /**
+     * @param name ticker thread name
+     * @param tickDuration expiry precision
+     * @param wheelSize number of buckets, rounded up to power of two
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, Duration tickDuration, int wheelSize) {
+        this.tickNanos = tickDuration.toNanos();
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.wheel = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        this.startNanos = System.nanoTime();
+        this.ticker = new Thread(this::tickLoop, name);
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Schedule task to run once delay has passed, within one tick precision.
+     *
+     * @param task
+     * @param delay
+     * @return The Timeout that can be cancelled
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        Timeout timeout = new Timeout(task, System.nanoTime() - startNanos + delay.toNanos());
+        pending.offer(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    private void tickLoop() {
+        while (running) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleepNanos;
+            while (running && (sleepNanos = deadline - (System.nanoTime() - startNanos)) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+            transferPending();
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    /**
+     * Move newly scheduled timeouts into buckets of their deadline tick.
+     */
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Overdue timeouts go to the current bucket
+            long deadlineTick = Math.max(timeout.deadlineNanos / tickNanos, tick);
+            timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+            wheel[(int) (deadlineTick & mask)].offer(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    log.error("Timeout task failed.", e);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    public static final class Timeout {
+        private final Runnable task;
+        // Relative to wheel start
+        private final long deadlineNanos;
+        private volatile boolean cancelled;
+        // Ticker thread only
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Task won't run if it hasn't already, cancelled timeout is dropped when its bucket comes up.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.upgrade.volcano.island.reservation.engine;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Default engine, request threads run mutations themselves under one lock.
+ * ReentrantLock rather than synchronized so virtual threads don't pin their carrier.
+ */
+@Component
+@ConditionalOnProperty(prefix = "campsite.reservation", name = "engine", havingValue = "LOCKING", matchIfMissing = true)
+public class LockingMutationExecutor implements MutationExecutor {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Override
+    public <T> T execute(Supplier<T> mutation) {
+        lock.lock();
+        try {
+            return mutation.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Supplier<T> mutation) {
+        try {
+            return CompletableFuture.completedFuture(execute(mutation));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
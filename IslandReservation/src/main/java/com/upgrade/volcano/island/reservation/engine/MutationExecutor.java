@@ -0,0 +1,28 @@
+package com.upgrade.volcano.island.reservation.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs ReservationManager calendar mutations one at a time.
+ * Selected with campsite.reservation.engine property.
+ */
+public interface MutationExecutor {
+
+    /**
+     * Run mutation and wait for its result, exceptions thrown by mutation are rethrown as is.
+     */
+    <T> T execute(Supplier<T> mutation);
+
+    /**
+     * Run mutation, result or exception completes the returned future.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> mutation);
+
+    default void execute(Runnable mutation) {
+        execute(() -> {
+            mutation.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package com.upgrade.volcano.island.reservation.engine;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Single writer engine: request threads enqueue commands, one dedicated writer thread owns the calendar
+ * and applies commands in arrival order without locks, completing a future per command.
+ * Writer drains everything queued since it last looked, so under contention commands are processed
+ * in batches back to back on a warm cache. Every command passes through the writer loop,
+ * which makes it the place to hook journaling in.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "campsite.reservation", name = "engine", havingValue = "SINGLE_WRITER")
+public class SingleWriterMutationExecutor implements MutationExecutor {
+
+    private final Queue<Command<?>> commands = new ConcurrentLinkedQueue<>();
+    private final int maxBatchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public SingleWriterMutationExecutor(ReservationProperties properties) {
+        this.maxBatchSize = properties.getEngineMaxBatchSize();
+        this.writer = new Thread(this::writeLoop, "calendar-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Calendar mutations run on single writer thread.");
+    }
+
+    @Override
+    public <T> T execute(Supplier<T> mutation) {
+        try {
+            return submit(mutation).join();
+        } catch (CompletionException e) {
+            // Rethrow what the mutation threw, like running it on the calling thread would
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Supplier<T> mutation) {
+        if (Thread.currentThread() == writer) {
+            // Nested mutation of a command already running on the writer
+            return run(mutation);
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Calendar writer is stopped"));
+        }
+        Command<T> command = new Command<>(mutation);
+        commands.offer(command);
+        if (!running) {
+            // Writer may have drained the queue for the last time before the offer, nobody else would complete it
+            failQueued();
+        }
+        LockSupport.unpark(writer);
+        return command.future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+    }
+
+    private void writeLoop() {
+        while (running) {
+            Command<?> command = commands.poll();
+            if (command == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            int processed = 0;
+            do {
+                command.complete();
+                processed++;
+            } while (processed < maxBatchSize && (command = commands.poll()) != null);
+        }
+        // Fail whatever was queued after stop
+        failQueued();
+    }
+
+    private void failQueued() {
+        Command<?> command;
+        while ((command = commands.poll()) != null) {
+            command.future.completeExceptionally(new IllegalStateException("Calendar writer is stopped"));
+        }
+    }
+
+    private static <T> CompletableFuture<T> run(Supplier<T> mutation) {
+        try {
+            return CompletableFuture.completedFuture(mutation.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static class Command<T> {
+        private final Supplier<T> mutation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Command(Supplier<T> mutation) {
+            this.mutation = mutation;
+        }
+
+        private void complete() {
+            try {
+                future.complete(mutation.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.upgrade.volcano.island.reservation.event;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.rest.model.AvailabilityChangeDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.assertj.core.util.VisibleForTesting;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events feed of day level availability changes.
+ * Publishing only hands the change over to the dispatcher thread, fan out to subscribers happens there.
+ * Every subscriber has a bounded buffer where pending changes for the same day are coalesced,
+ * a subscriber that falls too far behind gets a resync event and should re-fetch available dates.
+ * Sends block on the client connection: a subscriber whose send takes longer than send timeout is disconnected,
+ * and the sender pool gets an extra thread until the stuck send returns, so a few stalled clients can't
+ * delay the feed for everyone else.
+ */
+@Slf4j
+@Component
+public class AvailabilityFeed {
+
+    public static final String AVAILABILITY_EVENT = "availability";
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final long IDLE = 0L;
+    private static final long STALLED = Long.MIN_VALUE;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Dispatches changes and checks for stalled sends
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "availability-feed-dispatcher"));
+    private final ThreadPoolExecutor sender;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final int bufferDays;
+
+    public AvailabilityFeed(ReservationProperties properties) {
+        this.timeoutMillis = properties.getAvailabilityFeedTimeout().toMillis();
+        this.sendTimeoutNanos = properties.getAvailabilityFeedSendTimeout().toNanos();
+        this.bufferDays = properties.getAvailabilityFeedBufferDays();
+        int senderThreads = properties.getAvailabilityFeedSenderThreads();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                r -> new Thread(r, "availability-feed-sender"));
+        long checkNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(10), sendTimeoutNanos / 4);
+        dispatcher.scheduleWithFixedDelay(this::disconnectStalled, checkNanos, checkNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Register new subscriber
+     *
+     * @return The SseEmitter
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeoutMillis));
+    }
+
+    @VisibleForTesting
+    public SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Publish availability changes, date -> available. Never blocks the caller.
+     *
+     * @param changes
+     */
+    public void publish(Map<LocalDate, Boolean> changes) {
+        if (changes.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        Map<LocalDate, Boolean> event = new LinkedHashMap<>(changes);
+        dispatcher.execute(() -> subscribers.forEach(subscriber -> subscriber.offer(event)));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Runs on dispatcher. Stalled subscriber gets no more changes, its sender thread is replaced until the send returns.
+     */
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long sendStarted = subscriber.sendStarted.get();
+            if (sendStarted != IDLE && sendStarted != STALLED && now - sendStarted > sendTimeoutNanos
+                    && subscriber.sendStarted.compareAndSet(sendStarted, STALLED)) {
+                subscribers.remove(subscriber);
+                resizeSender(1);
+                log.info("Availability feed subscriber disconnected, send blocked for more than {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            }
+        }
+    }
+
+    private synchronized void resizeSender(int delta) {
+        // Grow maximum first, core can't exceed it
+        if (delta > 0) {
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+            sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+        } else {
+            sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+        // System.nanoTime() when in-flight send started, IDLE when not sending, STALLED once send timeout passed
+        private final AtomicLong sendStarted = new AtomicLong(IDLE);
+        // Guarded by this
+        private Map<LocalDate, Boolean> pending = new LinkedHashMap<>();
+        private boolean overflow;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(Map<LocalDate, Boolean> changes) {
+            synchronized (this) {
+                if (!overflow) {
+                    pending.putAll(changes);
+                    if (pending.size() > bufferDays) {
+                        // Too far behind, drop buffered changes and ask client to resync
+                        pending.clear();
+                        overflow = true;
+                    }
+                }
+            }
+            if (drainScheduled.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            Map<LocalDate, Boolean> changes;
+            boolean resync;
+            synchronized (this) {
+                changes = pending;
+                resync = overflow;
+                pending = new LinkedHashMap<>();
+                overflow = false;
+            }
+            sendStarted.set(System.nanoTime());
+            try {
+                if (resync) {
+                    emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(""));
+                } else if (!changes.isEmpty()) {
+                    List<AvailabilityChangeDTO> data = new ArrayList<>(changes.size());
+                    changes.forEach((date, available) -> data.add(new AvailabilityChangeDTO(date, available)));
+                    emitter.send(SseEmitter.event().name(AVAILABILITY_EVENT).data(data));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Availability feed subscriber dropped: {}", e.getMessage());
+                subscribers.remove(this);
+                if (sendStarted.getAndSet(IDLE) == STALLED) {
+                    resizeSender(-1);
+                }
+                return;
+            } finally {
+                drainScheduled.set(false);
+            }
+            if (sendStarted.getAndSet(IDLE) == STALLED) {
+                // Send returned at last, give the extra sender thread back and close the connection
+                resizeSender(-1);
+                emitter.completeWithError(new IOException("Availability feed send timed out"));
+                return;
+            }
+            // Changes offered while sending are picked up by another drain
+            synchronized (this) {
+                if ((overflow || !pending.isEmpty()) && drainScheduled.compareAndSet(false, true)) {
+                    sender.execute(this::drain);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.upgrade.volcano.island.reservation.event;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.mail.EmailException;
+import org.apache.commons.mail.SimpleEmail;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sends confirmation email to the guest for created, updated and cancelled reservations.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "campsite.reservation", name = "emailConfirmation", havingValue = "true")
+public class EmailConfirmationSink implements ReservationEventSink {
+
+    private final ReservationProperties properties;
+
+    public EmailConfirmationSink(ReservationProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return "email-confirmation";
+    }
+
+    @Override
+    public void onEvents(List<ReservationEvent> events) {
+        for (ReservationEvent event : events) {
+            if (event.getType() == ReservationEvent.Type.EXPIRED) {
+                continue;
+            }
+            try {
+                send(event);
+            } catch (EmailException e) {
+                log.error("Failed to send {} confirmation for reservation {}", event.getType(), event.getReservation().getReservationId(), e);
+            }
+        }
+    }
+
+    private void send(ReservationEvent event) throws EmailException {
+        ReservationBO reservationBO = event.getReservation();
+        SimpleEmail email = new SimpleEmail();
+        email.setHostName(properties.getEmailHost());
+        email.setSmtpPort(properties.getEmailPort());
+        email.setFrom(properties.getEmailFrom());
+        email.addTo(reservationBO.getEmail());
+        email.setSubject("Volcano Island campsite reservation " + event.getType().name().toLowerCase());
+        email.setMsg("Dear " + reservationBO.getFirstName() + " " + reservationBO.getLastName() + ",\n\n"
+                + "Your reservation " + reservationBO.getReservationId() + " from " + reservationBO.getStartDate()
+                + " to " + reservationBO.getEndDate() + " is " + event.getType().name().toLowerCase() + ".");
+        email.send();
+    }
+}
@@ -0,0 +1,28 @@
+package com.upgrade.volcano.island.reservation.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class EventBusMetrics {
+    int bufferSize;
+    long published;
+    // Events not published because ring and spill queue of a sink that can't lose events were full
+    long dropped;
+    List<SinkMetrics> sinks;
+
+    @Value
+    public static class SinkMetrics {
+        String name;
+        boolean lossTolerant;
+        long processed;
+        long batches;
+        long maxBatchSize;
+        long failures;
+        // Events skipped by loss tolerant sink because they were overwritten before it got to them
+        long lost;
+        // Published events not yet processed by the sink, including spilled ones
+        long lag;
+    }
+}
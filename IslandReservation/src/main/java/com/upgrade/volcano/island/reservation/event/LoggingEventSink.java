@@ -0,0 +1,33 @@
+package com.upgrade.volcano.island.reservation.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Audit sink, logs every reservation event. Loss tolerant, its async log appender drops under pressure
+ * rather than blocking anyway.
+ */
+@Slf4j
+@Component
+public class LoggingEventSink implements ReservationEventSink {
+
+    @Override
+    public String getName() {
+        return "audit-log";
+    }
+
+    @Override
+    public boolean isLossTolerant() {
+        return true;
+    }
+
+    @Override
+    public void onEvents(List<ReservationEvent> events) {
+        for (ReservationEvent event : events) {
+            log.info("Reservation {}: {} {} - {}", event.getType(), event.getReservation().getReservationId(),
+                    event.getReservation().getStartDate(), event.getReservation().getEndDate());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.upgrade.volcano.island.reservation.event;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Sampled structured log of manager operations, one JSON object per line with operation, outcome, duration and
+ * reservation fields, timestamped by the application Clock. Written to the "reservation.events" logger, which logback-spring.xml routes to an async file appender.
+ * Sampling is decided before the operation runs, unsampled operations only pay for a random draw.
+ * Guest emails and names are not logged.
+ */
+@Component
+public class OperationEventLog {
+
+    public static final String LOGGER_NAME = "reservation.events";
+
+    private static final Logger eventLog = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final double sampleRate;
+    private final DayClock dayClock;
+
+    @Autowired
+    public OperationEventLog(ReservationProperties properties, DayClock dayClock) {
+        this.sampleRate = properties.getEventLogSampleRate();
+        this.dayClock = dayClock;
+    }
+
+    /**
+     * Run operation, recording it when sampled.
+     *
+     * @param operation operation name
+     * @param request   request reservation, its fields are logged when operation fails or returns no reservation
+     * @param action    operation
+     * @return The operation result
+     */
+    public <T> T record(String operation, ReservationBO request, Supplier<T> action) {
+        if (!isSampled()) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            write(operation, "ok", start, result instanceof ReservationBO ? (ReservationBO) result : request, null);
+            return result;
+        } catch (RuntimeException e) {
+            write(operation, e.getClass().getSimpleName(), start, request, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Run operation on existing reservation, recording it when sampled.
+     */
+    public void record(String operation, String reservationId, Runnable action) {
+        if (!isSampled()) {
+            action.run();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            action.run();
+            write(operation, "ok", start, null, reservationId);
+        } catch (RuntimeException e) {
+            write(operation, e.getClass().getSimpleName(), start, null, reservationId);
+            throw e;
+        }
+    }
+
+    private boolean isSampled() {
+        return sampleRate > 0 && eventLog.isInfoEnabled() && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private void write(String operation, String outcome, long start, ReservationBO reservationBO, String reservationId) {
+        long durationMicros = (System.nanoTime() - start) / 1_000;
+        StringBuilder json = new StringBuilder(192).append('{');
+        appendField(json, "ts", dayClock.now().toString()).append(',');
+        appendField(json, "op", operation).append(',');
+        appendField(json, "outcome", outcome).append(',');
+        json.append("\"durationUs\":").append(durationMicros).append(',');
+        appendField(json, "thread", Thread.currentThread().getName());
+        if (reservationBO != null) {
+            reservationId = reservationBO.getReservationId();
+            if (reservationBO.getStartDate() != null && reservationBO.getEndDate() != null) {
+                appendField(json.append(','), "startDate", reservationBO.getStartDate().toString()).append(',');
+                appendField(json, "endDate", reservationBO.getEndDate().toString());
+            }
+        }
+        if (reservationId != null) {
+            appendField(json.append(','), "reservationId", reservationId);
+        }
+        eventLog.info(json.append('}').toString());
+    }
+
+    private static StringBuilder appendField(StringBuilder json, String name, String value) {
+        json.append('"').append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+}
@@ -0,0 +1,42 @@
+package com.upgrade.volcano.island.reservation.event;
+
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Change data capture event published by ReservationManager after calendar mutation.
+ * Timestamp comes from the application Clock, see DayClock.
+ */
+@Value
+@AllArgsConstructor
+public class ReservationEvent {
+
+    public enum Type {
+        CREATED, UPDATED, CANCELLED, EXPIRED
+    }
+
+    Type type;
+    ReservationBO reservation;
+    // Replaced reservation, set for UPDATED events only
+    ReservationBO previousReservation;
+    Instant timestamp;
+
+    public static ReservationEvent created(ReservationBO reservation, Instant timestamp) {
+        return new ReservationEvent(Type.CREATED, reservation, null, timestamp);
+    }
+
+    public static ReservationEvent updated(ReservationBO reservation, ReservationBO previousReservation, Instant timestamp) {
+        return new ReservationEvent(Type.UPDATED, reservation, previousReservation, timestamp);
+    }
+
+    public static ReservationEvent cancelled(ReservationBO reservation, Instant timestamp) {
+        return new ReservationEvent(Type.CANCELLED, reservation, null, timestamp);
+    }
+
+    public static ReservationEvent expired(ReservationBO reservation, Instant timestamp) {
+        return new ReservationEvent(Type.EXPIRED, reservation, null, timestamp);
+    }
+}
@@ -0,0 +1,280 @@
+package com.upgrade.volcano.island.reservation.event;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * In-process reservation event bus on a pre-allocated ring buffer, Disruptor style.
+ * Publisher claims the next slot and advances the cursor without locks, every sink has its own
+ * consumer thread and sequence and processes everything published up to the cursor as one batch.
+ * Events are published by ReservationManager while holding its lock, so there is a single producer.
+ * <p>
+ * Publisher never waits, it runs inside the calendar mutation.
+ * Sinks that can't lose events are delivered from a bounded spill queue by their own thread, their ring thread
+ * only moves events into it. Only when the spill queue is full as well the ring stays full for them,
+ * and publisher drops the event right away, logs and counts it.
+ * Loss tolerant sinks are delivered from the ring, when they fall a full ring behind they skip
+ * the overwritten events and count them as lost.
+ * Idle sink threads back off up to a millisecond and then park until the next publish.
+ */
+@Slf4j
+@Component
+public class ReservationEventBus {
+
+    private static final long MAX_IDLE_PARK_NANOS = 1_000_000L;
+
+    private final AtomicReferenceArray<ReservationEvent> ring;
+    private final int mask;
+    private final int maxBatchSize;
+    private final int spillSize;
+    // Sequence of last published event
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<SinkProcessor> processors;
+    // Processors of sinks that can't lose events, publisher never overwrites events they haven't processed
+    private final List<SinkProcessor> gatingProcessors;
+    // Producer side cache of the slowest gating sink sequence, avoids reading all sink sequences on every publish
+    private long gatingSequenceCache = -1;
+    private volatile boolean running = true;
+
+    public ReservationEventBus(ReservationProperties properties, ObjectProvider<ReservationEventSink> sinks) {
+        int bufferSize = Integer.highestOneBit(Math.max(2, properties.getEventBusBufferSize() - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(bufferSize);
+        this.mask = bufferSize - 1;
+        this.maxBatchSize = properties.getEventBusMaxBatchSize();
+        this.spillSize = properties.getEventBusSpillSize();
+        this.processors = sinks.orderedStream().map(SinkProcessor::new).collect(Collectors.toList());
+        this.gatingProcessors = processors.stream().filter(processor -> !processor.lossTolerant).collect(Collectors.toList());
+        processors.forEach(SinkProcessor::start);
+    }
+
+    /**
+     * Publish event to all sinks without waiting. Must be called by one thread at a time.
+     *
+     * @param event
+     * @return true if published, false if dropped because a sink that can't lose events is full
+     */
+    public boolean publish(ReservationEvent event) {
+        return publishAll(Collections.singletonList(event)) == 1;
+    }
+
+    /**
+     * Publish events in order with one cursor move, sinks see them as consecutive batches.
+     * Must be called by one thread at a time, never waits.
+     *
+     * @param events
+     * @return number of published events, events that don't fit in the ring are dropped
+     */
+    public int publishAll(List<ReservationEvent> events) {
+        if (processors.isEmpty() || events.isEmpty()) {
+            return 0;
+        }
+        long first = cursor.get() + 1;
+        long last = first + events.size() - 1;
+        long end = claim(last);
+        for (long next = first; next <= end; next++) {
+            ring.set((int) next & mask, events.get((int) (next - first)));
+        }
+        int published = (int) Math.max(0, end - first + 1);
+        if (published < events.size()) {
+            dropped.addAndGet(events.size() - published);
+            log.error("Reservation event bus is full, dropped {} of {} events starting with {} for reservation {}",
+                    events.size() - published, events.size(), events.get(published).getType(),
+                    events.get(published).getReservation().getReservationId());
+        }
+        if (published > 0) {
+            // Volatile store pairs with the volatile waiting flag of parked sinks, one of both sides sees the other
+            cursor.set(end);
+            for (SinkProcessor processor : processors) {
+                if (processor.waiting) {
+                    LockSupport.unpark(processor.thread);
+                }
+            }
+        }
+        return published;
+    }
+
+    /**
+     * Slots free for gating sinks, checked once without waiting.
+     *
+     * @return The highest sequence that can be written
+     */
+    private long claim(long last) {
+        long wrapPoint = last - ring.length();
+        if (gatingProcessors.isEmpty() || wrapPoint <= gatingSequenceCache) {
+            return last;
+        }
+        gatingSequenceCache = minimumGatingSequence();
+        return Math.min(last, gatingSequenceCache + ring.length());
+    }
+
+    public EventBusMetrics getMetrics() {
+        long published = cursor.get() + 1;
+        List<EventBusMetrics.SinkMetrics> sinkMetrics = processors.stream()
+                .map(processor -> new EventBusMetrics.SinkMetrics(processor.sink.getName(), processor.lossTolerant,
+                        processor.processed.get(), processor.batches.get(), processor.maxBatch.get(), processor.failures.get(),
+                        processor.lost.get(), published - processor.processed.get() - processor.lost.get()))
+                .collect(Collectors.toList());
+        return new EventBusMetrics(ring.length(), published, dropped.get(), sinkMetrics);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        processors.forEach(SinkProcessor::stop);
+    }
+
+    private long minimumGatingSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (SinkProcessor processor : gatingProcessors) {
+            minimum = Math.min(minimum, processor.sequence.get());
+        }
+        return minimum;
+    }
+
+    private class SinkProcessor implements Runnable {
+        private final ReservationEventSink sink;
+        private final boolean lossTolerant;
+        private final Thread thread;
+        // Events moved off the ring, delivered by worker, only for sinks that can't lose events
+        private final BlockingQueue<ReservationEvent> spill;
+        private final Thread worker;
+        // Sequence of last event taken off the ring
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong maxBatch = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong lost = new AtomicLong();
+        // Set while parked without timeout, publisher unparks
+        private volatile boolean waiting;
+
+        private SinkProcessor(ReservationEventSink sink) {
+            this.sink = sink;
+            this.lossTolerant = sink.isLossTolerant();
+            this.thread = new Thread(this, "event-sink-" + sink.getName());
+            thread.setDaemon(true);
+            this.spill = lossTolerant ? null : new LinkedBlockingQueue<>(spillSize);
+            this.worker = lossTolerant ? null : new Thread(this::deliverSpilled, "event-sink-" + sink.getName() + "-worker");
+            if (worker != null) {
+                worker.setDaemon(true);
+            }
+        }
+
+        private void start() {
+            thread.start();
+            if (worker != null) {
+                worker.start();
+            }
+        }
+
+        private void stop() {
+            thread.interrupt();
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            long idleParkNanos = 1_000L;
+            while (running) {
+                long next = sequence.get() + 1;
+                long available = cursor.get();
+                if (available < next) {
+                    if (idleParkNanos <= MAX_IDLE_PARK_NANOS) {
+                        // Back off while idle, up to a millisecond
+                        LockSupport.parkNanos(idleParkNanos);
+                        idleParkNanos <<= 1;
+                    } else {
+                        waiting = true;
+                        if (running && cursor.get() < next) {
+                            LockSupport.park(this);
+                        }
+                        waiting = false;
+                    }
+                    continue;
+                }
+                idleParkNanos = 1_000L;
+                if (lossTolerant && next < oldestReadable(available)) {
+                    lost.addAndGet(oldestReadable(available) - next);
+                    next = oldestReadable(available);
+                }
+                long end = Math.min(available, next + maxBatchSize - 1);
+                List<ReservationEvent> batch = new ArrayList<>((int) (end - next + 1));
+                for (long i = next; i <= end; i++) {
+                    batch.add(ring.get((int) i & mask));
+                }
+                if (lossTolerant) {
+                    // Drop slots publisher may have overwritten while they were read
+                    int overwritten = (int) Math.min(batch.size(), Math.max(0, oldestReadable(cursor.get()) - next));
+                    lost.addAndGet(overwritten);
+                    batch = batch.subList(overwritten, batch.size());
+                }
+                if (spill != null) {
+                    try {
+                        // Waits only while spill is full, publisher then sees the ring full for this sink
+                        for (ReservationEvent event : batch) {
+                            spill.put(event);
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                } else if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+                // Release slots back to the publisher
+                sequence.lazySet(end);
+            }
+        }
+
+        private void deliverSpilled() {
+            List<ReservationEvent> batch = new ArrayList<>(maxBatchSize);
+            while (running) {
+                try {
+                    batch.add(spill.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                spill.drainTo(batch, maxBatchSize - 1);
+                deliver(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+
+        private void deliver(List<ReservationEvent> batch) {
+            try {
+                sink.onEvents(batch);
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                log.error("Reservation event sink {} failed to process {} events", sink.getName(), batch.size(), e);
+            }
+            processed.addAndGet(batch.size());
+            batches.incrementAndGet();
+            maxBatch.accumulateAndGet(batch.size(), Math::max);
+        }
+
+        /**
+         * Slot of sequence s is rewritten for s + ring length right after cursor reaches s + ring length - 1,
+         * so with cursor at c everything before c - ring length + 2 may be gone.
+         *
+         * @return The first sequence still safe to read
+         */
+        private long oldestReadable(long cursorSequence) {
+            return cursorSequence - ring.length() + 2;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.upgrade.volcano.island.reservation.event;
+
+import java.util.List;
+
+/**
+ * Consumer of reservation events. Every sink runs on its own thread and receives events in batches,
+ * in publishing order. Slow sink delays only itself, booking never waits for it, see ReservationEventBus.
+ */
+public interface ReservationEventSink {
+
+    String getName();
+
+    void onEvents(List<ReservationEvent> events) throws Exception;
+
+    /**
+     * Loss tolerant sink skips events it fell too far behind on instead of holding the booking path back.
+     *
+     * @return false by default, every event is delivered unless ring and spill queue are full
+     */
+    default boolean isLossTolerant() {
+        return false;
+    }
+}
@@ -0,0 +1,8 @@
+package com.upgrade.volcano.island.reservation.exception;
+
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
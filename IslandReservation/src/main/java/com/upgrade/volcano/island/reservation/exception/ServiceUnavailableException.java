@@ -0,0 +1,8 @@
+package com.upgrade.volcano.island.reservation.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import lombok.Value;
+
+/**
+ * Compact availability: bit i of bitmap (little-endian, see BitSet.toByteArray()) is set when epoch day from + i
+ * is available, trailing unavailable days are not encoded.
+ */
+@Value
+public class AvailabilityBitmap {
+
+    public static final AvailabilityBitmap EMPTY = new AvailabilityBitmap(0, 0, new byte[0]);
+
+    // First day as epoch day
+    long from;
+    // Number of days covered
+    int days;
+    byte[] bitmap;
+}
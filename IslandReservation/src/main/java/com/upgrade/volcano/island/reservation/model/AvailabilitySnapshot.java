@@ -0,0 +1,187 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * Immutable copy of calendar availability, published by ReservationManager after every calendar mutation,
+ * so availability can be read without taking the manager lock. Bit i is set when firstDay + i is available.
+ */
+public final class AvailabilitySnapshot {
+
+    public static final AvailabilitySnapshot EMPTY = new AvailabilitySnapshot(null, 0, new BitSet(), 0, 0);
+
+    private final LocalDate firstDay;
+    private final long firstEpochDay;
+    private final int days;
+    private final BitSet available;
+    // Built by the first longest free run query, not by the mutation that publishes the snapshot
+    private volatile FreeRunTree freeRuns;
+    // Taken days that are neither free nor booked
+    private final int closedDays;
+    private final int heldDays;
+
+    private AvailabilitySnapshot(LocalDate firstDay, int days, BitSet available, int closedDays, int heldDays) {
+        this.firstDay = firstDay;
+        this.firstEpochDay = firstDay == null ? 0 : firstDay.toEpochDay();
+        this.days = days;
+        this.available = available;
+        this.closedDays = closedDays;
+        this.heldDays = heldDays;
+    }
+
+    /**
+     * Build snapshot from calendar
+     *
+     * @param calendar
+     * @return The AvailabilitySnapshot
+     */
+    public static AvailabilitySnapshot of(ReservationCalendar calendar) {
+        return of(calendar, 0, 0);
+    }
+
+    /**
+     * Build snapshot from calendar with counts of closed and held days maintained by ReservationManager
+     *
+     * @param calendar
+     * @param closedDays
+     * @param heldDays
+     * @return The AvailabilitySnapshot
+     */
+    public static AvailabilitySnapshot of(ReservationCalendar calendar, int closedDays, int heldDays) {
+        if (calendar.isEmpty()) {
+            return EMPTY;
+        }
+        long firstDay = calendar.getFirstDay();
+        long lastDay = calendar.getLastDay();
+        return new AvailabilitySnapshot(LocalDate.ofEpochDay(firstDay), (int) (lastDay - firstDay + 1),
+                calendar.getFreeDays(firstDay, lastDay), closedDays, heldDays);
+    }
+
+    /**
+     * @return Number of calendar days in snapshot
+     */
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * @return Number of free calendar days in snapshot
+     */
+    public int getAvailableDays() {
+        return available.cardinality();
+    }
+
+    /**
+     * @return Number of calendar days closed by admin
+     */
+    public int getClosedDays() {
+        return closedDays;
+    }
+
+    /**
+     * @return Number of calendar days taken by holds
+     */
+    public int getHeldDays() {
+        return heldDays;
+    }
+
+    public boolean isAvailable(LocalDate date) {
+        return isAvailable(date.toEpochDay());
+    }
+
+    /**
+     * @param day epoch day
+     * @return true if day is in snapshot and free
+     */
+    public boolean isAvailable(long day) {
+        if (firstDay == null) {
+            return false;
+        }
+        long index = day - firstEpochDay;
+        return index >= 0 && index < days && available.get((int) index);
+    }
+
+    /**
+     * Available dates within range, both ends inclusive and optional.
+     *
+     * @param startDate
+     * @param endDate
+     * @return The available dates ordered by date
+     */
+    public AvailableDates getAvailableDates(LocalDate startDate, LocalDate endDate) {
+        if (firstDay == null) {
+            return AvailableDates.EMPTY;
+        }
+        int from = startDate == null ? 0 : Math.max(0, offset(startDate));
+        int to = endDate == null ? days - 1 : Math.min(days - 1, offset(endDate));
+        int[] epochDays = new int[Math.max(0, to - from + 1)];
+        int size = 0;
+        for (int i = available.nextSetBit(from); i >= 0 && i <= to; i = available.nextSetBit(i + 1)) {
+            epochDays[size++] = (int) (firstEpochDay + i);
+        }
+        return new AvailableDates(epochDays, size);
+    }
+
+    /**
+     * Availability within range as bitmap, both ends inclusive and optional.
+     *
+     * @param startDate
+     * @param endDate
+     * @return The AvailabilityBitmap
+     */
+    public AvailabilityBitmap getAvailabilityBitmap(LocalDate startDate, LocalDate endDate) {
+        if (firstDay == null) {
+            return AvailabilityBitmap.EMPTY;
+        }
+        int from = startDate == null ? 0 : Math.max(0, offset(startDate));
+        int to = endDate == null ? days - 1 : Math.min(days - 1, offset(endDate));
+        if (from > to) {
+            return AvailabilityBitmap.EMPTY;
+        }
+        return new AvailabilityBitmap(firstEpochDay + from, to - from + 1, available.get(from, to + 1).toByteArray());
+    }
+
+    /**
+     * Longest run of consecutive available days within range, both ends inclusive and optional.
+     *
+     * @param startDate
+     * @param endDate
+     * @return The earliest longest FreeRun, FreeRun.NONE if no day is available
+     */
+    public FreeRun getLongestFreeRun(LocalDate startDate, LocalDate endDate) {
+        if (firstDay == null) {
+            return FreeRun.NONE;
+        }
+        int from = startDate == null ? 0 : Math.max(0, offset(startDate));
+        int to = endDate == null ? days - 1 : Math.min(days - 1, offset(endDate));
+        if (from > to) {
+            return FreeRun.NONE;
+        }
+        int[] run = freeRuns().longestRun(from, to);
+        if (run[1] == 0) {
+            return FreeRun.NONE;
+        }
+        LocalDate runStart = firstDay.plusDays(run[0]);
+        return new FreeRun(runStart, runStart.plusDays(run[1] - 1L), run[1]);
+    }
+
+    /**
+     * Day index of date, clamped to -1..days before the int cast, so far away dates like LocalDate.MAX can't wrap around.
+     */
+    private int offset(LocalDate date) {
+        return (int) Math.max(-1, Math.min(days, date.toEpochDay() - firstEpochDay));
+    }
+
+    /**
+     * Racing readers may each build a tree, all of them equal, the last one published wins.
+     */
+    private FreeRunTree freeRuns() {
+        FreeRunTree tree = freeRuns;
+        if (tree == null) {
+            tree = new FreeRunTree(available, days);
+            freeRuns = tree;
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,45 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.upgrade.volcano.island.reservation.util.AvailableDatesSerializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Available dates as epoch days ordered by date, serialized as JSON array of ISO dates
+ * straight from the day numbers without creating LocalDate instances.
+ */
+@JsonSerialize(using = AvailableDatesSerializer.class)
+public final class AvailableDates {
+
+    public static final AvailableDates EMPTY = new AvailableDates(new int[0], 0);
+
+    private final int[] epochDays;
+    private final int size;
+
+    public AvailableDates(int[] epochDays, int size) {
+        this.epochDays = epochDays;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Epoch day at index
+     */
+    public int getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    public List<LocalDate> toList() {
+        List<LocalDate> dates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dates.add(LocalDate.ofEpochDay(epochDays[i]));
+        }
+        return dates;
+    }
+}
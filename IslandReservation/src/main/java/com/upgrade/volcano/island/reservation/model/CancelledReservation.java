@@ -0,0 +1,17 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Tombstone of a cancelled reservation, exported to incremental consumers so they can drop it.
+ */
+@Value
+public class CancelledReservation {
+    String reservationId;
+    LocalDate startDate;
+    LocalDate endDate;
+    Instant cancelledAt;
+}
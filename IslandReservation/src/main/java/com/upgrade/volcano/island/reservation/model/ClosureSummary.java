@@ -0,0 +1,19 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of closing a date range, see ReservationManager.closeDates.
+ */
+@Value
+public class ClosureSummary {
+    // Days of range newly closed, days closed before are not counted again
+    int closedDays;
+    // Ordered by start date
+    List<String> cancelledReservationIds;
+    int releasedHolds;
+    // Cancelled events dropped because event bus was full
+    int droppedEvents;
+}
@@ -0,0 +1,17 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Consecutive available days, both ends inclusive. Dates are null when no day is available.
+ */
+@Value
+public class FreeRun {
+    public static final FreeRun NONE = new FreeRun(null, null, 0);
+
+    LocalDate startDate;
+    LocalDate endDate;
+    int days;
+}
@@ -0,0 +1,127 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import java.util.BitSet;
+
+/**
+ * Immutable segment tree over day availability. Every node keeps the free run touching its left edge, the free run
+ * touching its right edge and its longest free run, so the longest free run within any range takes O(log n).
+ * Built in O(n) together with the availability snapshot.
+ */
+final class FreeRunTree {
+
+    private final int days;
+    // Leaf count, power of two, node i has children 2i and 2i + 1
+    private final int leaves;
+    private final int[] prefix;
+    private final int[] suffix;
+    private final int[] best;
+    // Offset of best run from node left edge
+    private final int[] bestStart;
+
+    FreeRunTree(BitSet available, int days) {
+        this.days = days;
+        int size = 1;
+        while (size < Math.max(1, days)) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        prefix = new int[2 * size];
+        suffix = new int[2 * size];
+        best = new int[2 * size];
+        bestStart = new int[2 * size];
+        for (int i = available.nextSetBit(0); i >= 0 && i < days; i = available.nextSetBit(i + 1)) {
+            prefix[size + i] = suffix[size + i] = best[size + i] = 1;
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            // Children width, node on level k covers size >> k days
+            int half = size >> (32 - Integer.numberOfLeadingZeros(node));
+            combine(node, 2 * node, 2 * node + 1, half);
+        }
+    }
+
+    private void combine(int node, int left, int right, int half) {
+        prefix[node] = prefix[left] == half ? half + prefix[right] : prefix[left];
+        suffix[node] = suffix[right] == half ? half + suffix[left] : suffix[right];
+        best[node] = best[left];
+        bestStart[node] = bestStart[left];
+        int middle = suffix[left] + prefix[right];
+        if (middle > best[node]) {
+            best[node] = middle;
+            bestStart[node] = half - suffix[left];
+        }
+        if (best[right] > best[node]) {
+            best[node] = best[right];
+            bestStart[node] = half + bestStart[right];
+        }
+    }
+
+    /**
+     * Longest free run within range, the earliest one on ties.
+     *
+     * @param from first day index, inclusive
+     * @param to   last day index, inclusive
+     * @return {start index, length}, length 0 when no day is free
+     */
+    int[] longestRun(int from, int to) {
+        Run run = query(1, 0, leaves - 1, Math.max(0, from), Math.min(days - 1, to));
+        return run == null ? new int[]{0, 0} : new int[]{run.bestStart, run.best};
+    }
+
+    private Run query(int node, int nodeFrom, int nodeTo, int from, int to) {
+        if (from > nodeTo || to < nodeFrom) {
+            return null;
+        }
+        if (from <= nodeFrom && nodeTo <= to) {
+            return new Run(nodeFrom, nodeTo - nodeFrom + 1, prefix[node], suffix[node], best[node], nodeFrom + bestStart[node]);
+        }
+        int middle = (nodeFrom + nodeTo) >>> 1;
+        Run left = query(2 * node, nodeFrom, middle, from, to);
+        Run right = query(2 * node + 1, middle + 1, nodeTo, from, to);
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        return left.append(right);
+    }
+
+    /**
+     * Free run summary of a contiguous day range, bestStart is absolute index.
+     */
+    private static final class Run {
+        final int from;
+        final int length;
+        final int prefix;
+        final int suffix;
+        final int best;
+        final int bestStart;
+
+        Run(int from, int length, int prefix, int suffix, int best, int bestStart) {
+            this.from = from;
+            this.length = length;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.best = best;
+            this.bestStart = bestStart;
+        }
+
+        Run append(Run right) {
+            int best = this.best;
+            int bestStart = this.bestStart;
+            int middle = suffix + right.prefix;
+            if (middle > best) {
+                best = middle;
+                bestStart = right.from - suffix;
+            }
+            if (right.best > best) {
+                best = right.best;
+                bestStart = right.bestStart;
+            }
+            return new Run(from, length + right.length,
+                    prefix == length ? length + right.prefix : prefix,
+                    right.suffix == right.length ? right.length + suffix : right.suffix,
+                    best, bestStart);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import com.upgrade.volcano.island.reservation.engine.HashedTimingWheel;
+import lombok.Value;
+
+/**
+ * Tentative booking with its expiry timeout.
+ */
+@Value
+public class Hold {
+    ReservationBO reservationBO;
+    HashedTimingWheel.Timeout timeout;
+}
@@ -0,0 +1,52 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Occupancy statistics read from running aggregates, see OccupancyStatistics.
+ */
+@Value
+public class OccupancyReport {
+    // Booked share of bookable days within the horizon right now
+    int calendarDays;
+    int bookedDays;
+    double occupancyRate;
+    // Counters since service start, stay and lead of current bookings
+    long bookings;
+    long updates;
+    long cancellations;
+    double cancellationRate;
+    double averageStayDays;
+    double averageLeadDays;
+    List<Bucket> stayLengthHistogram;
+    List<Bucket> leadTimeHistogram;
+    // Most recent day last
+    List<Period> daily;
+    List<Period> weekly;
+
+    @Value
+    public static class Bucket {
+        // Inclusive upper bound in days, null for the last open bucket
+        Integer upToDays;
+        long count;
+    }
+
+    @Value
+    public static class Period {
+        // First day of the period, weeks start on Monday
+        LocalDate startDate;
+        long bookings;
+        long cancellations;
+        // Of bookings made in the period, null when there were none
+        Double cancellationRate;
+        Double averageStayDays;
+        Double averageLeadDays;
+        // Days of the period that ended booked / ended while service was running, null when none ended yet
+        int occupiedDays;
+        int recordedDays;
+        Double occupancyRate;
+    }
+}
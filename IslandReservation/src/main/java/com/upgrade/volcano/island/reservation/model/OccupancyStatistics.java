@@ -0,0 +1,235 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * Running occupancy aggregates: totals, fixed bucket histograms of stay length and lead time, and per day counters
+ * in a ring of recent days. Updated in O(1) by ReservationManager inside mutations, one writer at a time;
+ * read without locks, so a report can mix counters of two consecutive mutations.
+ * Lead time is counted from the day a reservation was booked, see bookedDay arguments.
+ */
+public class OccupancyStatistics {
+
+    // Days of history kept per day, report can cover up to 8 full weeks
+    public static final int HISTORY_DAYS = 64;
+    private static final int[] STAY_BOUNDS = {1, 2, 3};
+    private static final int[] LEAD_BOUNDS = {1, 3, 7, 14, 30};
+
+    private final AtomicLong bookings = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong cancellations = new AtomicLong();
+    // Stay and lead sums and histograms of current bookings: an update replaces its previous dates,
+    // cancelled and passed reservations are taken out, rebuilt on restore
+    private final AtomicLong staySum = new AtomicLong();
+    private final AtomicLong leadSum = new AtomicLong();
+    private final AtomicLong counted = new AtomicLong();
+    private final AtomicLongArray stayHistogram = new AtomicLongArray(STAY_BOUNDS.length + 1);
+    private final AtomicLongArray leadHistogram = new AtomicLongArray(LEAD_BOUNDS.length + 1);
+
+    // Ring slot of epoch day is day % HISTORY_DAYS, tagged with the day it currently holds
+    private final AtomicLongArray dayTags = new AtomicLongArray(HISTORY_DAYS);
+    private final AtomicLongArray dayBookings = new AtomicLongArray(HISTORY_DAYS);
+    private final AtomicLongArray dayCancellations = new AtomicLongArray(HISTORY_DAYS);
+    // Stay and lead sums of bookings made on the day
+    private final AtomicLongArray dayStaySum = new AtomicLongArray(HISTORY_DAYS);
+    private final AtomicLongArray dayLeadSum = new AtomicLongArray(HISTORY_DAYS);
+    // 1 occupied, 0 free, -1 not ended yet
+    private final AtomicLongArray dayOccupied = new AtomicLongArray(HISTORY_DAYS);
+
+    public OccupancyStatistics() {
+        for (int i = 0; i < HISTORY_DAYS; i++) {
+            dayTags.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * New reservation booked today.
+     */
+    public void booked(ReservationBO reservationBO, long today) {
+        bookings.incrementAndGet();
+        int slot = slot(today);
+        if (slot >= 0) {
+            dayBookings.incrementAndGet(slot);
+            dayStaySum.addAndGet(slot, stay(reservationBO));
+            dayLeadSum.addAndGet(slot, lead(reservationBO, today));
+        }
+        count(reservationBO, today, 1);
+    }
+
+    /**
+     * Reservation moved to new dates today, new dates count as booked today.
+     */
+    public void updated(ReservationBO oldReservationBO, long oldBookedDay, ReservationBO newReservationBO, long today) {
+        updates.incrementAndGet();
+        count(oldReservationBO, oldBookedDay, -1);
+        count(newReservationBO, today, 1);
+    }
+
+    /**
+     * Reservation cancelled today.
+     */
+    public void cancelled(ReservationBO reservationBO, long bookedDay, long today) {
+        cancellations.incrementAndGet();
+        int slot = slot(today);
+        if (slot >= 0) {
+            dayCancellations.incrementAndGet(slot);
+        }
+        count(reservationBO, bookedDay, -1);
+    }
+
+    /**
+     * Reservation removed after its stay passed.
+     */
+    public void ended(ReservationBO reservationBO, long bookedDay) {
+        count(reservationBO, bookedDay, -1);
+    }
+
+    /**
+     * Recount current bookings, e.g. after restore from backup. Totals and day history are kept.
+     */
+    public void rebuild(Collection<ReservationBO> reservations, ToLongFunction<ReservationBO> bookedDay) {
+        staySum.set(0);
+        leadSum.set(0);
+        counted.set(0);
+        for (int i = 0; i < stayHistogram.length(); i++) {
+            stayHistogram.set(i, 0);
+        }
+        for (int i = 0; i < leadHistogram.length(); i++) {
+            leadHistogram.set(i, 0);
+        }
+        for (ReservationBO reservationBO : reservations) {
+            count(reservationBO, bookedDay.applyAsLong(reservationBO), 1);
+        }
+    }
+
+    /**
+     * Calendar day passed, booked or not.
+     */
+    public void dayEnded(long day, boolean occupied) {
+        int slot = slot(day);
+        if (slot >= 0) {
+            dayOccupied.set(slot, occupied ? 1 : 0);
+        }
+    }
+
+    private void count(ReservationBO reservationBO, long bookedDay, int delta) {
+        long stay = stay(reservationBO);
+        long lead = lead(reservationBO, bookedDay);
+        staySum.addAndGet(delta * stay);
+        leadSum.addAndGet(delta * lead);
+        counted.addAndGet(delta);
+        stayHistogram.addAndGet(bucket(STAY_BOUNDS, stay), delta);
+        leadHistogram.addAndGet(bucket(LEAD_BOUNDS, lead), delta);
+    }
+
+    private static long stay(ReservationBO reservationBO) {
+        return reservationBO.getEndDate().toEpochDay() - reservationBO.getStartDate().toEpochDay() + 1;
+    }
+
+    private static long lead(ReservationBO reservationBO, long bookedDay) {
+        return Math.max(0, reservationBO.getStartDate().toEpochDay() - bookedDay);
+    }
+
+    private static int bucket(int[] bounds, long value) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Ring slot of day, reset when it held an older day.
+     *
+     * @return The slot or -1 when day already fell out of the ring
+     */
+    private int slot(long day) {
+        int slot = (int) Math.floorMod(day, (long) HISTORY_DAYS);
+        long tag = dayTags.get(slot);
+        if (tag > day) {
+            return -1;
+        }
+        if (tag != day) {
+            dayBookings.set(slot, 0);
+            dayCancellations.set(slot, 0);
+            dayStaySum.set(slot, 0);
+            dayLeadSum.set(slot, 0);
+            dayOccupied.set(slot, -1);
+            dayTags.set(slot, day);
+        }
+        return slot;
+    }
+
+    /**
+     * @param today        epoch day
+     * @param days         number of days up to today, at most HISTORY_DAYS
+     * @param calendarDays bookable days within horizon
+     * @param bookedDays   booked days within horizon
+     * @return The OccupancyReport
+     */
+    public OccupancyReport report(long today, int days, int calendarDays, int bookedDays) {
+        List<OccupancyReport.Period> daily = new ArrayList<>(days);
+        List<OccupancyReport.Period> weekly = new ArrayList<>();
+        // Sums of the current week: bookings, cancellations, stay, lead, occupied days, recorded days
+        long[] week = new long[6];
+        LocalDate weekStart = null;
+        for (long day = today - days + 1; day <= today; day++) {
+            int slot = (int) Math.floorMod(day, (long) HISTORY_DAYS);
+            boolean recorded = dayTags.get(slot) == day;
+            long occupied = recorded ? dayOccupied.get(slot) : -1;
+            long[] sums = recorded
+                    ? new long[]{dayBookings.get(slot), dayCancellations.get(slot), dayStaySum.get(slot), dayLeadSum.get(slot),
+                    occupied == 1 ? 1 : 0, occupied >= 0 ? 1 : 0}
+                    : new long[]{0, 0, 0, 0, 0, 0};
+            LocalDate date = LocalDate.ofEpochDay(day);
+            daily.add(period(date, sums));
+            if (weekStart != null && !weekStart.equals(date.with(DayOfWeek.MONDAY))) {
+                weekly.add(period(weekStart, week));
+                week = new long[6];
+            }
+            weekStart = date.with(DayOfWeek.MONDAY);
+            for (int i = 0; i < week.length; i++) {
+                week[i] += sums[i];
+            }
+        }
+        if (weekStart != null) {
+            weekly.add(period(weekStart, week));
+        }
+        long bookingCount = bookings.get();
+        long current = counted.get();
+        return new OccupancyReport(calendarDays, bookedDays, ratio(bookedDays, calendarDays),
+                bookingCount, updates.get(), cancellations.get(), ratio(cancellations.get(), bookingCount),
+                ratio(staySum.get(), current), ratio(leadSum.get(), current),
+                histogram(STAY_BOUNDS, stayHistogram), histogram(LEAD_BOUNDS, leadHistogram), daily, weekly);
+    }
+
+    private static OccupancyReport.Period period(LocalDate startDate, long[] sums) {
+        long bookings = sums[0];
+        int occupiedDays = (int) sums[4];
+        int recordedDays = (int) sums[5];
+        return new OccupancyReport.Period(startDate, bookings, sums[1],
+                bookings == 0 ? null : (double) sums[1] / bookings,
+                bookings == 0 ? null : (double) sums[2] / bookings,
+                bookings == 0 ? null : (double) sums[3] / bookings,
+                occupiedDays, recordedDays, recordedDays == 0 ? null : (double) occupiedDays / recordedDays);
+    }
+
+    private static List<OccupancyReport.Bucket> histogram(int[] bounds, AtomicLongArray counts) {
+        List<OccupancyReport.Bucket> buckets = new ArrayList<>(counts.length());
+        for (int i = 0; i < counts.length(); i++) {
+            buckets.add(new OccupancyReport.Bucket(i < bounds.length ? bounds[i] : null, counts.get(i)));
+        }
+        return buckets;
+    }
+
+    private static double ratio(long value, long total) {
+        return total == 0 ? 0 : (double) value / total;
+    }
+}
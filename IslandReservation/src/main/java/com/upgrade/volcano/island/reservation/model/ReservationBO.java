@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
@@ -20,4 +21,5 @@ public class ReservationBO {
     private String email;
     private LocalDate startDate;
     private LocalDate endDate;
+    private Instant modifiedAt;
 }
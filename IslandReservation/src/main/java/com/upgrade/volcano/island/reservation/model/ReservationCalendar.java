@@ -0,0 +1,192 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Campsite calendar indexed by epoch day: slot i holds day firstDay + i, a day in the calendar
+ * with null reservationId is free. Days are looked up by array index, no LocalDate keys are created.
+ * Calendar days and free days are also kept as bitmaps, so first/last day lookups and availability copies
+ * cost O(words) rather than a scan of every day of the booking horizon.
+ * Not thread safe, mutated by ReservationManager one mutation at a time.
+ */
+public final class ReservationCalendar {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    @FunctionalInterface
+    public interface DayConsumer {
+        void accept(long day, String reservationId);
+    }
+
+    // Epoch day of slot 0
+    private long firstDay;
+    private String[] reservationIds = new String[INITIAL_CAPACITY];
+    // Bit i is set when slot i is a calendar day
+    private BitSet present = new BitSet(INITIAL_CAPACITY);
+    // Bit i is set when slot i is a free calendar day
+    private BitSet free = new BitSet(INITIAL_CAPACITY);
+    private int size;
+
+    /**
+     * Build calendar from day to reservationId map, free days map to null
+     *
+     * @param calendar
+     * @return The ReservationCalendar
+     */
+    public static ReservationCalendar of(Map<LocalDate, String> calendar) {
+        ReservationCalendar reservationCalendar = new ReservationCalendar();
+        // In date order, so days are appended without shifting
+        new TreeMap<>(calendar).forEach((date, reservationId) -> reservationCalendar.put(date.toEpochDay(), reservationId));
+        return reservationCalendar;
+    }
+
+    public boolean contains(long day) {
+        int index = indexOf(day);
+        return index >= 0 && present.get(index);
+    }
+
+    /**
+     * @return reservationId holding the day, null if day is free or not in calendar
+     */
+    public String get(long day) {
+        int index = indexOf(day);
+        return index >= 0 ? reservationIds[index] : null;
+    }
+
+    /**
+     * Add day to calendar or re-assign it, null reservationId frees the day.
+     */
+    public void put(long day, String reservationId) {
+        int index = slotOf(day);
+        if (!present.get(index)) {
+            present.set(index);
+            size++;
+        }
+        reservationIds[index] = reservationId;
+        free.set(index, reservationId == null);
+    }
+
+    /**
+     * Remove all days up to and including the day.
+     */
+    public void removeUpTo(long day) {
+        int count = (int) Math.min(Math.max(0, day - firstDay + 1), reservationIds.length);
+        if (count == 0) {
+            return;
+        }
+        size -= present.get(0, count).cardinality();
+        int length = reservationIds.length;
+        System.arraycopy(reservationIds, count, reservationIds, 0, length - count);
+        Arrays.fill(reservationIds, length - count, length, null);
+        present = present.get(count, Math.max(count, present.length()));
+        free = free.get(count, Math.max(count, free.length()));
+        firstDay += count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return First day in calendar as epoch day, calendar must not be empty
+     */
+    public long getFirstDay() {
+        checkNotEmpty();
+        return firstDay + present.nextSetBit(0);
+    }
+
+    /**
+     * @return Last day in calendar as epoch day, calendar must not be empty
+     */
+    public long getLastDay() {
+        checkNotEmpty();
+        return firstDay + present.length() - 1;
+    }
+
+    /**
+     * Free days within range as bitmap, bit i is set when fromDay + i is a free calendar day.
+     * Range must be within first and last calendar day.
+     *
+     * @param fromDay epoch day, inclusive
+     * @param toDay epoch day, inclusive
+     * @return The copy of free days bitmap
+     */
+    public BitSet getFreeDays(long fromDay, long toDay) {
+        return free.get(Math.toIntExact(fromDay - firstDay), Math.toIntExact(toDay - firstDay + 1));
+    }
+
+    /**
+     * Visit calendar days in date order.
+     */
+    public void forEach(DayConsumer consumer) {
+        for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+            consumer.accept(firstDay + i, reservationIds[i]);
+        }
+    }
+
+    /**
+     * @return Copy of calendar ordered by date, free days map to null
+     */
+    public SortedMap<LocalDate, String> toMap() {
+        SortedMap<LocalDate, String> map = new TreeMap<>();
+        forEach((day, reservationId) -> map.put(LocalDate.ofEpochDay(day), reservationId));
+        return map;
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new IllegalStateException("Calendar is empty");
+        }
+    }
+
+    private int indexOf(long day) {
+        long index = day - firstDay;
+        return index >= 0 && index < reservationIds.length ? (int) index : -1;
+    }
+
+    /**
+     * Index of the day slot, growing or shifting slots when the day is outside them.
+     */
+    private int slotOf(long day) {
+        if (size == 0) {
+            Arrays.fill(reservationIds, null);
+            present.clear();
+            free.clear();
+            firstDay = day;
+        } else if (day < firstDay) {
+            int offset = Math.toIntExact(firstDay - day);
+            ensureCapacity(Math.toIntExact(getLastDay() - day + 1));
+            System.arraycopy(reservationIds, 0, reservationIds, offset, reservationIds.length - offset);
+            Arrays.fill(reservationIds, 0, offset, null);
+            present = shifted(present, offset);
+            free = shifted(free, offset);
+            firstDay = day;
+        }
+        int index = Math.toIntExact(day - firstDay);
+        ensureCapacity(index + 1);
+        return index;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > reservationIds.length) {
+            reservationIds = Arrays.copyOf(reservationIds, Math.max(capacity, reservationIds.length * 2));
+        }
+    }
+
+    private static BitSet shifted(BitSet bits, int offset) {
+        BitSet shiftedBits = new BitSet(bits.length() + offset);
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            shiftedBits.set(i + offset);
+        }
+        return shiftedBits;
+    }
+}
@@ -0,0 +1,54 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Reservations ordered by start day. The campsite is booked by one reservation per day, so stored intervals never
+ * overlap and are ordered by end day as well: only the reservation starting at or before the range start can reach
+ * into the range from the left, which keeps overlap queries at O(log n + k) without max-end augmentation.
+ * Not thread safe, ReservationManager maintains and queries it inside mutations.
+ */
+public class ReservationIntervalIndex {
+
+    private final NavigableMap<Long, ReservationBO> byStartDay = new TreeMap<>();
+
+    public void add(ReservationBO reservationBO) {
+        byStartDay.put(reservationBO.getStartDate().toEpochDay(), reservationBO);
+    }
+
+    public void remove(ReservationBO reservationBO) {
+        byStartDay.remove(reservationBO.getStartDate().toEpochDay(), reservationBO);
+    }
+
+    public void clear() {
+        byStartDay.clear();
+    }
+
+    public int size() {
+        return byStartDay.size();
+    }
+
+    /**
+     * Reservations overlapping range, both ends inclusive.
+     *
+     * @param startDay epoch day
+     * @param endDay   epoch day
+     * @return The reservations ordered by start date
+     */
+    public List<ReservationBO> overlapping(long startDay, long endDay) {
+        List<ReservationBO> result = new ArrayList<>();
+        if (startDay > endDay) {
+            return result;
+        }
+        Map.Entry<Long, ReservationBO> floor = byStartDay.floorEntry(startDay);
+        if (floor != null && floor.getValue().getEndDate().toEpochDay() >= startDay) {
+            result.add(floor.getValue());
+        }
+        result.addAll(byStartDay.subMap(startDay, false, endDay, true).values());
+        return result;
+    }
+}
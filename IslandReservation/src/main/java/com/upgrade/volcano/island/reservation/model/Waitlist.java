@@ -0,0 +1,124 @@
+package com.upgrade.volcano.island.reservation.model;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * Waitlisted reservation requests indexed by day: every request is queued, in join order, on each day it asks for.
+ * Matching freed days only visits queues of those days, so cost depends on freed days, not on waitlist size.
+ * Requests leaving the waitlist are dropped from day queues lazily.
+ * Not thread safe, mutated by ReservationManager one mutation at a time.
+ */
+public final class Waitlist {
+
+    private final Map<Long, ArrayDeque<Entry>> dayQueues = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long sequence;
+
+    /**
+     * Add request to waitlist, request reservationId is the waitlist id.
+     */
+    public void add(ReservationBO request) {
+        Entry entry = new Entry(sequence++, request);
+        entries.put(request.getReservationId(), entry);
+        for (long day = request.getStartDate().toEpochDay(), endDay = request.getEndDate().toEpochDay(); day <= endDay; day++) {
+            dayQueues.computeIfAbsent(day, key -> new ArrayDeque<>()).offer(entry);
+        }
+    }
+
+    public ReservationBO get(String waitlistId) {
+        Entry entry = entries.get(waitlistId);
+        return entry == null ? null : entry.request;
+    }
+
+    public ReservationBO remove(String waitlistId) {
+        Entry entry = entries.remove(waitlistId);
+        if (entry == null) {
+            return null;
+        }
+        entry.active = false;
+        return entry.request;
+    }
+
+    /**
+     * Drop requests starting on or before the day, they can't be booked anymore.
+     */
+    public void removeUpTo(long day) {
+        entries.values().removeIf(entry -> {
+            if (entry.request.getStartDate().toEpochDay() <= day) {
+                entry.active = false;
+                return true;
+            }
+            return false;
+        });
+        dayQueues.keySet().removeIf(queueDay -> queueDay <= day);
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove and return the earliest waitlisted request asking for any of the freed days whose all days are free.
+     *
+     * @param freedDays epoch days that became free
+     * @param isFree    tells if epoch day is free
+     * @return The matched request or null
+     */
+    public ReservationBO pollFirstMatch(long[] freedDays, LongPredicate isFree) {
+        Entry match = null;
+        for (long freedDay : freedDays) {
+            ArrayDeque<Entry> queue = dayQueues.get(freedDay);
+            if (queue == null) {
+                continue;
+            }
+            Iterator<Entry> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (!entry.active) {
+                    iterator.remove();
+                } else if (match != null && entry.sequence > match.sequence) {
+                    // Queue is in join order, nothing earlier left in it
+                    break;
+                } else if (isFree(entry.request, isFree)) {
+                    match = entry;
+                    break;
+                }
+            }
+            if (queue.isEmpty()) {
+                dayQueues.remove(freedDay);
+            }
+        }
+        if (match != null) {
+            remove(match.request.getReservationId());
+        }
+        return match == null ? null : match.request;
+    }
+
+    private static boolean isFree(ReservationBO request, LongPredicate isFree) {
+        for (long day = request.getStartDate().toEpochDay(), endDay = request.getEndDate().toEpochDay(); day <= endDay; day++) {
+            if (!isFree.test(day)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final ReservationBO request;
+        private boolean active = true;
+
+        private Entry(long sequence, ReservationBO request) {
+            this.sequence = sequence;
+            this.request = request;
+        }
+    }
+}
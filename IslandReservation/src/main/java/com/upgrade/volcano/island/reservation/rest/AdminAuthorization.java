@@ -0,0 +1,41 @@
+package com.upgrade.volcano.island.reservation.rest;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.exception.AuthenticationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Checks the configured admin token sent as bearer token, shared by admin and export endpoints.
+ * Without configured token every request is rejected.
+ */
+@Component
+public class AdminAuthorization {
+
+    private static final String BEARER = "Bearer ";
+
+    private final byte[] adminAuthorization;
+
+    @Autowired
+    public AdminAuthorization(ReservationProperties properties) {
+        this.adminAuthorization = properties.getAdminToken() == null || properties.getAdminToken().isBlank() ? null
+                : (BEARER + properties.getAdminToken()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param authorization Authorization header value
+     * @throws AuthenticationException when admin API is disabled or token doesn't match
+     */
+    public void authorize(String authorization) {
+        if (adminAuthorization == null) {
+            throw new AuthenticationException("Admin API is disabled!");
+        }
+        // Constant time comparison, doesn't leak matching prefix length
+        if (authorization == null || !MessageDigest.isEqual(adminAuthorization, authorization.getBytes(StandardCharsets.UTF_8))) {
+            throw new AuthenticationException("Admin token is missing or invalid!");
+        }
+    }
+}
@@ -2,18 +2,26 @@ package com.upgrade.volcano.island.reservation.rest;
 
 import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
 import com.upgrade.volcano.island.reservation.exception.AuthenticationException;
+import com.upgrade.volcano.island.reservation.exception.ConflictException;
 import com.upgrade.volcano.island.reservation.exception.ReservationNotFoundException;
+import com.upgrade.volcano.island.reservation.exception.ServiceUnavailableException;
+import com.upgrade.volcano.island.reservation.exception.TooManyRequestsException;
 import com.upgrade.volcano.island.reservation.exception.ValidationException;
+import com.upgrade.volcano.island.reservation.util.EpochDays;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 
 public abstract class BaseController {
-    @ExceptionHandler({ValidationException.class, ReservationNotFoundException.class, AuthenticationException.class})
+    protected static final int MAX_PAGE_SIZE = 100;
+    // Header with client generated key, retries of booking requests with the same key get the first response
+    protected static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    @ExceptionHandler({ValidationException.class, ReservationNotFoundException.class, AuthenticationException.class,
+            TooManyRequestsException.class, ConflictException.class, ServiceUnavailableException.class})
     @ResponseBody
     public ResponseEntity<String> handleExecutionException(Exception ex) {
         if (ex instanceof ValidationException) {
@@ -22,34 +30,49 @@ public abstract class BaseController {
             return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
         } else if (ex instanceof AuthenticationException) {
             return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNAUTHORIZED);
+        } else if (ex instanceof TooManyRequestsException) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
+        } else if (ex instanceof ConflictException) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+        } else if (ex instanceof ServiceUnavailableException) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
         }
         return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
-    protected void validateReservationDates(ReservationDTO reservationDTO) {
-        validateReservationDates(reservationDTO.getStartDate(), reservationDTO.getEndDate());
+    protected void validateReservationDates(ReservationDTO reservationDTO, long today, int horizonDays) {
+        validateReservationDates(reservationDTO.getStartDate(), reservationDTO.getEndDate(), today, horizonDays);
     }
 
-    protected void validateReservationDates(LocalDate startDate, LocalDate endDate) {
+    /**
+     * Validate reservation dates against today, all arithmetic is done on epoch days.
+     *
+     * @param startDate
+     * @param endDate
+     * @param today epoch day, see DayClock
+     * @param horizonDays how many days ahead campsite can be booked
+     */
+    protected void validateReservationDates(LocalDate startDate, LocalDate endDate, long today, int horizonDays) {
         String errMsg = null;
-        LocalDate now = LocalDate.now();
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
         // Number of days between including start and end days
-        long numDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long numDays = EpochDays.daysInclusive(startDay, endDay);
         // Start date must be before end date
-        if (startDate.isAfter(endDate)) {
+        if (startDay > endDay) {
             errMsg = "Reservation start date must be before end date!";
         }
         // Start date must be after today's date, no need to check end date since we checked that it is after start date
-        else if (startDate.isBefore(now.plusDays(1))) {
+        else if (startDay <= today) {
             errMsg = "Reservation cannot start on the same day or in the past!";
         }
         // Number of days cannot exceed 3 days
         else if (numDays > 3) {
             errMsg = "Reservation cannot exceed 3 days!";
         }
-        // Date range must be within next 30 days
-        else if (startDate.isAfter(now.plusDays(30)) || endDate.isAfter(now.plusDays(30))) {
-            errMsg = "Reservation allowed up to a month in advance!";
+        // Date range must be within booking horizon
+        else if (startDay > today + horizonDays || endDay > today + horizonDays) {
+            errMsg = "Reservation allowed up to " + horizonDays + " days in advance!";
         }
         if (errMsg != null) {
             throw new ValidationException(errMsg);
@@ -69,4 +92,16 @@ public abstract class BaseController {
             }
         }
     }
+
+    protected void validatePage(int page, int size) {
+        String errMsg = null;
+        if (page < 0) {
+            errMsg = "Page number cannot be negative!";
+        } else if (size < 1 || size > MAX_PAGE_SIZE) {
+            errMsg = "Page size must be between 1 and " + MAX_PAGE_SIZE + "!";
+        }
+        if (errMsg != null) {
+            throw new ValidationException(errMsg);
+        }
+    }
 }
@@ -0,0 +1,159 @@
+package com.upgrade.volcano.island.reservation.rest;
+
+import com.upgrade.volcano.island.reservation.admission.BookingAdmissionControl;
+import com.upgrade.volcano.island.reservation.admission.IdempotencyCache;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.ReactiveReservationManager;
+import com.upgrade.volcano.island.reservation.model.AvailableDates;
+import com.upgrade.volcano.island.reservation.rest.model.AvailabilityBitmapDTO;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import com.upgrade.volcano.island.reservation.rest.model.ReservedDatesDTO;
+import com.upgrade.volcano.island.reservation.rest.model.mapper.ReservationMapper;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * WebFlux variant of ReservationController, same endpoints and semantics on the reactive stack.
+ * Active when the application runs as reactive web application (REACTIVE profile).
+ */
+@Validated
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReservationController extends BaseController {
+
+    private final ReservationMapper mapper;
+    private final BookingAdmissionControl admissionControl;
+    private final IdempotencyCache idempotencyCache;
+    private final DayClock dayClock;
+    private final ReservationProperties properties;
+    private final ReactiveReservationManager reservationManager;
+
+    @Autowired
+    public ReactiveReservationController(ReservationMapper mapper, ReactiveReservationManager reservationManager,
+                                         BookingAdmissionControl admissionControl, IdempotencyCache idempotencyCache, DayClock dayClock,
+                                         ReservationProperties properties) {
+        this.mapper = mapper;
+        this.dayClock = dayClock;
+        this.properties = properties;
+        this.admissionControl = admissionControl;
+        this.idempotencyCache = idempotencyCache;
+        this.reservationManager = reservationManager;
+    }
+
+    @GetMapping("/api/campsite/reservation/availableDates")
+    public Mono<ResponseEntity<AvailableDates>> getAvailableCampsiteDates(@RequestParam(value = "startDate", required = false)
+                                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                           @RequestParam(value = "endDate", required = false)
+                                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        validateRangeDates(startDate, endDate);
+        return reservationManager.getAvailableDates(startDate, endDate).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Availability as first date plus base64 bitmap instead of date array, for bulk consumers.
+     */
+    @GetMapping(value = "/api/campsite/reservation/availableDates", params = "format=bitmap")
+    public Mono<ResponseEntity<AvailabilityBitmapDTO>> getAvailableCampsiteDatesAsBitmap(@RequestParam(value = "startDate", required = false)
+                                                                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                                         @RequestParam(value = "endDate", required = false)
+                                                                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        validateRangeDates(startDate, endDate);
+        return reservationManager.getAvailabilityBitmap(startDate, endDate).map(mapper::map).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/api/campsite/reservations")
+    public Mono<ResponseEntity<List<ReservedDatesDTO>>> getCampsiteReservationsByEmail(@Email @RequestParam(value = "email") String email,
+                                                                                    @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                                    @RequestParam(value = "size", defaultValue = "20") int size) {
+        validatePage(page, size);
+        return reservationManager.getReservationsByEmail(email, page, size).map(mapper::mapDates).collectList().map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/api/campsite/reservations")
+    public Mono<ResponseEntity<ReservationDTO>> reserveCampsite(@RequestBody @Valid ReservationDTO reservationDTO,
+                                                                @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        validateReservationDates(reservationDTO, dayClock.getToday(), properties.getHorizonDays());
+        return idempotencyCache.executeReactive(idempotencyKey, "reserve", reservationDTO, () -> {
+            admissionControl.admit(reservationDTO.getEmail());
+            return reservationManager.reserveCampsite(mapper.map(reservationDTO))
+                    .map(reservationBO -> ResponseEntity.status(HttpStatus.CREATED).body(mapper.map(reservationBO)));
+        });
+    }
+
+    @PutMapping("/api/campsite/reservation/{reservationId}")
+    public Mono<ResponseEntity<ReservationDTO>> updateCampsiteReservation(@PathVariable String reservationId, @RequestBody @Valid ReservationDTO reservationDTO,
+                                                                    @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        validateReservationDates(reservationDTO, dayClock.getToday(), properties.getHorizonDays());
+        return idempotencyCache.executeReactive(idempotencyKey, "update " + reservationId, reservationDTO, () -> {
+            admissionControl.admit(reservationDTO.getEmail());
+            return reservationManager.updateReservation(reservationId, mapper.map(reservationDTO))
+                    .map(reservationBO -> ResponseEntity.status(HttpStatus.OK).body(mapper.map(reservationBO)));
+        });
+    }
+
+    @GetMapping("/api/campsite/reservation/{reservationId}")
+    public Mono<ResponseEntity<ReservationDTO>> getCampsiteReservation(@PathVariable String reservationId) {
+        return reservationManager.getReservation(reservationId)
+                .map(reservationBO -> ResponseEntity.status(HttpStatus.OK).body(mapper.map(reservationBO)));
+    }
+
+    @DeleteMapping("/api/campsite/reservation/{reservationId}/{userId}")
+    Mono<ResponseEntity<Void>> cancelReservation(@PathVariable String reservationId, @Email @PathVariable String userId) {
+        return reservationManager.cancelReservation(reservationId, userId)
+                .then(Mono.just(ResponseEntity.status(HttpStatus.OK).build()));
+    }
+
+    @PostMapping("/api/campsite/holds")
+    public Mono<ResponseEntity<ReservationDTO>> holdCampsite(@RequestBody @Valid ReservationDTO reservationDTO) {
+        validateReservationDates(reservationDTO, dayClock.getToday(), properties.getHorizonDays());
+        admissionControl.admit(reservationDTO.getEmail());
+        return reservationManager.holdCampsite(mapper.map(reservationDTO))
+                .map(reservationBO -> ResponseEntity.status(HttpStatus.CREATED).body(mapper.map(reservationBO)));
+    }
+
+    @PostMapping("/api/campsite/hold/{holdId}/{userId}")
+    public Mono<ResponseEntity<ReservationDTO>> confirmHold(@PathVariable String holdId, @Email @PathVariable String userId) {
+        return reservationManager.confirmHold(holdId, userId)
+                .map(reservationBO -> ResponseEntity.status(HttpStatus.CREATED).body(mapper.map(reservationBO)));
+    }
+
+    @DeleteMapping("/api/campsite/hold/{holdId}/{userId}")
+    Mono<ResponseEntity<Void>> releaseHold(@PathVariable String holdId, @Email @PathVariable String userId) {
+        return reservationManager.releaseHold(holdId, userId)
+                .then(Mono.just(ResponseEntity.status(HttpStatus.OK).build()));
+    }
+
+    @PostMapping("/api/campsite/waitlist")
+    public Mono<ResponseEntity<ReservationDTO>> joinWaitlist(@RequestBody @Valid ReservationDTO reservationDTO) {
+        validateReservationDates(reservationDTO, dayClock.getToday(), properties.getHorizonDays());
+        admissionControl.admit(reservationDTO.getEmail());
+        return reservationManager.joinWaitlist(mapper.map(reservationDTO))
+                .map(reservationBO -> ResponseEntity.status(HttpStatus.CREATED).body(mapper.map(reservationBO)));
+    }
+
+    @DeleteMapping("/api/campsite/waitlist/{waitlistId}/{userId}")
+    Mono<ResponseEntity<Void>> leaveWaitlist(@PathVariable String waitlistId, @Email @PathVariable String userId) {
+        return reservationManager.leaveWaitlist(waitlistId, userId)
+                .then(Mono.just(ResponseEntity.status(HttpStatus.OK).build()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.upgrade.volcano.island.reservation.rest;
+
+import com.upgrade.volcano.island.reservation.ReservationManager;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.event.EventBusMetrics;
+import com.upgrade.volcano.island.reservation.event.ReservationEventBus;
+import com.upgrade.volcano.island.reservation.exception.ValidationException;
+import com.upgrade.volcano.island.reservation.model.ClosureSummary;
+import com.upgrade.volcano.island.reservation.model.OccupancyReport;
+import com.upgrade.volcano.island.reservation.model.OccupancyStatistics;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import com.upgrade.volcano.island.reservation.rest.model.mapper.ReservationMapper;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Admin endpoints expose every guest's reservations and can cancel them, each request must carry
+ * the configured admin token as bearer token, see AdminAuthorization.
+ */
+@RestController
+public class ReservationAdminController extends BaseController {
+
+    private final ReservationEventBus eventBus;
+    private final ReservationManager reservationManager;
+    private final ReservationMapper mapper;
+    private final DayClock dayClock;
+    private final int horizonDays;
+    private final AdminAuthorization adminAuthorization;
+
+    @Autowired
+    public ReservationAdminController(ReservationEventBus eventBus, ReservationManager reservationManager, ReservationMapper mapper,
+                                      DayClock dayClock, ReservationProperties properties, AdminAuthorization adminAuthorization) {
+        this.eventBus = eventBus;
+        this.reservationManager = reservationManager;
+        this.mapper = mapper;
+        this.dayClock = dayClock;
+        this.horizonDays = properties.getHorizonDays();
+        this.adminAuthorization = adminAuthorization;
+    }
+
+    @GetMapping("/api/campsite/admin/events/metrics")
+    public ResponseEntity<EventBusMetrics> getEventBusMetrics(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        authorize(authorization);
+        return ResponseEntity.ok(eventBus.getMetrics());
+    }
+
+    @GetMapping("/api/campsite/admin/reservations")
+    public ResponseEntity<List<ReservationDTO>> getReservationsOverlapping(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                                           @RequestParam(value = "startDate")
+                                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                           @RequestParam(value = "endDate")
+                                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        authorize(authorization);
+        validateRangeDates(startDate, endDate);
+        return ResponseEntity.ok(mapper.map(reservationManager.getReservationsOverlapping(startDate, endDate)));
+    }
+
+    @GetMapping("/api/campsite/admin/statistics")
+    public ResponseEntity<OccupancyReport> getOccupancyReport(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                              @RequestParam(value = "days", defaultValue = "28") int days) {
+        authorize(authorization);
+        if (days < 1 || days > OccupancyStatistics.HISTORY_DAYS) {
+            throw new ValidationException("Statistics: days must be between 1 and " + OccupancyStatistics.HISTORY_DAYS + "!");
+        }
+        return ResponseEntity.ok(reservationManager.getOccupancyReport(days));
+    }
+
+    @PostMapping("/api/campsite/admin/closures")
+    public ResponseEntity<ClosureSummary> closeDates(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                     @RequestParam(value = "startDate")
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                     @RequestParam(value = "endDate")
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        authorize(authorization);
+        validateClosureDates(startDate, endDate);
+        return ResponseEntity.ok(reservationManager.closeDates(startDate, endDate));
+    }
+
+    @DeleteMapping("/api/campsite/admin/closures")
+    public ResponseEntity<Integer> reopenDates(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                               @RequestParam(value = "startDate")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                               @RequestParam(value = "endDate")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        authorize(authorization);
+        validateClosureDates(startDate, endDate);
+        return ResponseEntity.ok(reservationManager.reopenDates(startDate, endDate));
+    }
+
+    private void authorize(String authorization) {
+        adminAuthorization.authorize(authorization);
+    }
+
+    /**
+     * Closures cover bookable days only, from tomorrow up to booking horizon.
+     */
+    private void validateClosureDates(LocalDate startDate, LocalDate endDate) {
+        validateRangeDates(startDate, endDate);
+        long today = dayClock.getToday();
+        if (startDate.toEpochDay() <= today || endDate.toEpochDay() > today + horizonDays) {
+            throw new ValidationException("Closure allowed from tomorrow up to " + horizonDays + " days in advance!");
+        }
+    }
+}
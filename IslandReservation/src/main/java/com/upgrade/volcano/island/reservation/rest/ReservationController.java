@@ -1,14 +1,26 @@
 package com.upgrade.volcano.island.reservation.rest;
 
+import com.upgrade.volcano.island.reservation.admission.BookingAdmissionControl;
+import com.upgrade.volcano.island.reservation.admission.IdempotencyCache;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.event.AvailabilityFeed;
+import com.upgrade.volcano.island.reservation.model.AvailabilityBitmap;
+import com.upgrade.volcano.island.reservation.model.AvailableDates;
+import com.upgrade.volcano.island.reservation.model.FreeRun;
+import com.upgrade.volcano.island.reservation.rest.model.AvailabilityBitmapDTO;
 import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import com.upgrade.volcano.island.reservation.rest.model.ReservedDatesDTO;
 import com.upgrade.volcano.island.reservation.rest.model.mapper.ReservationMapper;
+import com.upgrade.volcano.island.reservation.util.DayClock;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import lombok.extern.slf4j.Slf4j;
 import com.upgrade.volcano.island.reservation.ReservationManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,8 +29,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -26,19 +40,32 @@ import java.util.List;
 @Slf4j
 @Validated
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ReservationController extends BaseController {
 
     private final ReservationMapper mapper;
+    private final BookingAdmissionControl admissionControl;
+    private final IdempotencyCache idempotencyCache;
+    private final DayClock dayClock;
+    private final ReservationProperties properties;
     private final ReservationManager reservationManager;
+    private final AvailabilityFeed availabilityFeed;
 
     @Autowired
-    public ReservationController(ReservationMapper mapper, ReservationManager reservationManager) {
+    public ReservationController(ReservationMapper mapper, ReservationManager reservationManager, AvailabilityFeed availabilityFeed,
+                                 BookingAdmissionControl admissionControl, IdempotencyCache idempotencyCache, DayClock dayClock,
+                                 ReservationProperties properties) {
         this.mapper = mapper;
+        this.dayClock = dayClock;
+        this.properties = properties;
+        this.admissionControl = admissionControl;
+        this.idempotencyCache = idempotencyCache;
         this.reservationManager = reservationManager;
+        this.availabilityFeed = availabilityFeed;
     }
 
     @GetMapping("/api/campsite/reservation/availableDates")
-    public ResponseEntity<List<LocalDate>> getAvailableCampsiteDates(@RequestParam(value = "startDate", required = false)
+    public ResponseEntity<AvailableDates> getAvailableCampsiteDates(@RequestParam(value = "startDate", required = false)
                                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
                                                                      @RequestParam(value = "endDate", required = false)
                                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
@@ -46,18 +73,72 @@ public class ReservationController extends BaseController {
         return ResponseEntity.ok(reservationManager.getAvailableDates(startDate, endDate));
     }
 
+    /**
+     * Binary clients get availability as start epoch day plus bitmap instead of date array.
+     */
+    @GetMapping(value = "/api/campsite/reservation/availableDates", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<AvailabilityBitmap> getAvailableCampsiteDatesBitmap(@RequestParam(value = "startDate", required = false)
+                                                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                              @RequestParam(value = "endDate", required = false)
+                                                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        validateRangeDates(startDate, endDate);
+        return ResponseEntity.ok(reservationManager.getAvailabilityBitmap(startDate, endDate));
+    }
+
+    /**
+     * Availability as first date plus base64 bitmap instead of date array, for bulk consumers.
+     */
+    @GetMapping(value = "/api/campsite/reservation/availableDates", params = "format=bitmap")
+    public ResponseEntity<AvailabilityBitmapDTO> getAvailableCampsiteDatesAsBitmap(@RequestParam(value = "startDate", required = false)
+                                                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                                   @RequestParam(value = "endDate", required = false)
+                                                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        validateRangeDates(startDate, endDate);
+        return ResponseEntity.ok(mapper.map(reservationManager.getAvailabilityBitmap(startDate, endDate)));
+    }
+
+    @GetMapping("/api/campsite/reservation/availableDates/longestFreeRun")
+    public ResponseEntity<FreeRun> getLongestFreeRun(@RequestParam(value = "startDate", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                     @RequestParam(value = "endDate", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        validateRangeDates(startDate, endDate);
+        return ResponseEntity.ok(reservationManager.getLongestFreeRun(startDate, endDate));
+    }
+
+    @GetMapping(value = "/api/campsite/reservation/availableDates/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getAvailableCampsiteDatesFeed() {
+        return availabilityFeed.subscribe();
+    }
+
+    @GetMapping("/api/campsite/reservations")
+    public ResponseEntity<List<ReservedDatesDTO>> getCampsiteReservationsByEmail(@Email @RequestParam(value = "email") String email,
+                                                                              @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                              @RequestParam(value = "size", defaultValue = "20") int size) {
+        validatePage(page, size);
+        return ResponseEntity.ok(mapper.mapDates(reservationManager.getReservationsByEmail(email, page, size)));
+    }
+
     @PostMapping("/api/campsite/reservations")
-    public ResponseEntity<ReservationDTO> reserveCampsite(@RequestBody @Valid ReservationDTO reservationDTO) {
-        validateReservationDates(reservationDTO);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(mapper.map(reservationManager.reserveCampsite(mapper.map(reservationDTO))));
+    public ResponseEntity<ReservationDTO> reserveCampsite(@RequestBody @Valid ReservationDTO reservationDTO,
+                                                          @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        validateReservationDates(reservationDTO, dayClock.getToday(), properties.getHorizonDays());
+        return idempotencyCache.execute(idempotencyKey, "reserve", reservationDTO, () -> {
+            admissionControl.admit(reservationDTO.getEmail());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(mapper.map(reservationManager.reserveCampsite(mapper.map(reservationDTO))));
+        });
     }
 
     @PutMapping("/api/campsite/reservation/{reservationId}")
-    public ResponseEntity<ReservationDTO> updateCampsiteReservation(@PathVariable String reservationId, @RequestBody @Valid ReservationDTO reservationDTO) {
-        validateReservationDates(reservationDTO);
-        return ResponseEntity.status(HttpStatus.OK)
-                .body(mapper.map(reservationManager.updateReservation(reservationId, mapper.map(reservationDTO))));
+    public ResponseEntity<ReservationDTO> updateCampsiteReservation(@PathVariable String reservationId, @RequestBody @Valid ReservationDTO reservationDTO,
+                                                                    @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        validateReservationDates(reservationDTO, dayClock.getToday(), properties.getHorizonDays());
+        return idempotencyCache.execute(idempotencyKey, "update " + reservationId, reservationDTO, () -> {
+            admissionControl.admit(reservationDTO.getEmail());
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(mapper.map(reservationManager.updateReservation(reservationId, mapper.map(reservationDTO))));
+        });
     }
 
     @GetMapping("/api/campsite/reservation/{reservationId}")
@@ -71,4 +152,38 @@ public class ReservationController extends BaseController {
         reservationManager.cancelReservation(reservationId, userId);
         return ResponseEntity.status(HttpStatus.OK).build();
     }
+
+    @PostMapping("/api/campsite/holds")
+    public ResponseEntity<ReservationDTO> holdCampsite(@RequestBody @Valid ReservationDTO reservationDTO) {
+        validateReservationDates(reservationDTO, dayClock.getToday(), properties.getHorizonDays());
+        admissionControl.admit(reservationDTO.getEmail());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(mapper.map(reservationManager.holdCampsite(mapper.map(reservationDTO))));
+    }
+
+    @PostMapping("/api/campsite/hold/{holdId}/{userId}")
+    public ResponseEntity<ReservationDTO> confirmHold(@PathVariable String holdId, @Email @PathVariable String userId) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(mapper.map(reservationManager.confirmHold(holdId, userId)));
+    }
+
+    @DeleteMapping("/api/campsite/hold/{holdId}/{userId}")
+    ResponseEntity<Void> releaseHold(@PathVariable String holdId, @Email @PathVariable String userId) {
+        reservationManager.releaseHold(holdId, userId);
+        return ResponseEntity.status(HttpStatus.OK).build();
+    }
+
+    @PostMapping("/api/campsite/waitlist")
+    public ResponseEntity<ReservationDTO> joinWaitlist(@RequestBody @Valid ReservationDTO reservationDTO) {
+        validateReservationDates(reservationDTO, dayClock.getToday(), properties.getHorizonDays());
+        admissionControl.admit(reservationDTO.getEmail());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(mapper.map(reservationManager.joinWaitlist(mapper.map(reservationDTO))));
+    }
+
+    @DeleteMapping("/api/campsite/waitlist/{waitlistId}/{userId}")
+    ResponseEntity<Void> leaveWaitlist(@PathVariable String waitlistId, @Email @PathVariable String userId) {
+        reservationManager.leaveWaitlist(waitlistId, userId);
+        return ResponseEntity.status(HttpStatus.OK).build();
+    }
 }
@@ -0,0 +1,78 @@
+package com.upgrade.volcano.island.reservation.rest;
+
+import com.upgrade.volcano.island.reservation.ReservationManager;
+import com.upgrade.volcano.island.reservation.model.CancelledReservation;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import com.upgrade.volcano.island.reservation.util.ReservationExportWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.SortedMap;
+
+/**
+ * Streaming NDJSON export for finance and analytics jobs. Exports hold guest emails and reservation ids,
+ * so they require the admin token like admin endpoints.
+ */
+@Slf4j
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReservationExportController extends BaseController {
+
+    private final ReservationManager reservationManager;
+    private final ReservationExportWriter exportWriter;
+    private final AdminAuthorization adminAuthorization;
+
+    @Autowired
+    public ReservationExportController(ReservationManager reservationManager, ReservationExportWriter exportWriter,
+                                       AdminAuthorization adminAuthorization) {
+        this.reservationManager = reservationManager;
+        this.exportWriter = exportWriter;
+        this.adminAuthorization = adminAuthorization;
+    }
+
+    @GetMapping(value = "/api/campsite/export/reservations", produces = ReservationExportWriter.NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportReservations(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                                    @RequestParam(value = "startDate", required = false)
+                                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                    @RequestParam(value = "endDate", required = false)
+                                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                                    @RequestParam(value = "modifiedSince", required = false)
+                                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant modifiedSince) {
+        adminAuthorization.authorize(authorization);
+        validateRangeDates(startDate, endDate);
+        // Snapshot is taken before streaming starts, so the export is consistent
+        ReservationBO[] reservations = reservationManager.snapshotReservations();
+        CancelledReservation[] cancellations = modifiedSince == null ? new CancelledReservation[0]
+                : reservationManager.snapshotCancellations();
+        StreamingResponseBody body = outputStream -> {
+            int count = exportWriter.writeReservations(reservations, cancellations, startDate, endDate, modifiedSince, outputStream);
+            log.info("Exported {} reservations.", count);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(ReservationExportWriter.NDJSON_MEDIA_TYPE)).body(body);
+    }
+
+    @GetMapping(value = "/api/campsite/export/calendar", produces = ReservationExportWriter.NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportCalendar(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                                @RequestParam(value = "startDate", required = false)
+                                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                @RequestParam(value = "endDate", required = false)
+                                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        adminAuthorization.authorize(authorization);
+        validateRangeDates(startDate, endDate);
+        SortedMap<LocalDate, String> calendar = reservationManager.snapshotCalendar();
+        StreamingResponseBody body = outputStream -> exportWriter.writeCalendar(calendar, startDate, endDate, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(ReservationExportWriter.NDJSON_MEDIA_TYPE)).body(body);
+    }
+}
@@ -0,0 +1,22 @@
+package com.upgrade.volcano.island.reservation.rest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Bit i of bitmap is set when from + i is available, bitmap is base64 encoded in JSON.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityBitmapDTO implements Serializable {
+    private LocalDate from;
+    private int days;
+    private byte[] bitmap;
+}
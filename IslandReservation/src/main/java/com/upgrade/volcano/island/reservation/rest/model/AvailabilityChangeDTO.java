@@ -0,0 +1,18 @@
+package com.upgrade.volcano.island.reservation.rest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityChangeDTO implements Serializable {
+    private LocalDate date;
+    private boolean available;
+}
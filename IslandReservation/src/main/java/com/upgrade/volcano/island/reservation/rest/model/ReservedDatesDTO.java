@@ -0,0 +1,22 @@
+package com.upgrade.volcano.island.reservation.rest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Dates of a reservation without reservationId and guest name, reservationId together with email is what
+ * authorizes update and cancel.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservedDatesDTO implements Serializable {
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
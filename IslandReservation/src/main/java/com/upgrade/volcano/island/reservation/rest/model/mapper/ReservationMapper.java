@@ -1,12 +1,28 @@
 package com.upgrade.volcano.island.reservation.rest.model.mapper;
 
+import com.upgrade.volcano.island.reservation.model.AvailabilityBitmap;
 import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import com.upgrade.volcano.island.reservation.rest.model.AvailabilityBitmapDTO;
 import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import com.upgrade.volcano.island.reservation.rest.model.ReservedDatesDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface ReservationMapper {
     ReservationDTO map(ReservationBO source);
 
+    @Mapping(target = "modifiedAt", ignore = true)
     ReservationBO map(ReservationDTO source);
+
+    List<ReservationDTO> map(List<ReservationBO> source);
+
+    ReservedDatesDTO mapDates(ReservationBO source);
+
+    List<ReservedDatesDTO> mapDates(List<ReservationBO> source);
+
+    @Mapping(target = "from", expression = "java(java.time.LocalDate.ofEpochDay(source.getFrom()))")
+    AvailabilityBitmapDTO map(AvailabilityBitmap source);
 }
@@ -0,0 +1,28 @@
+package com.upgrade.volcano.island.reservation.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.upgrade.volcano.island.reservation.model.AvailableDates;
+
+import java.io.IOException;
+
+/**
+ * Writes available dates as JSON array of ISO dates from epoch days using pre-formatted dates of IsoDateCache.
+ */
+public class AvailableDatesSerializer extends StdSerializer<AvailableDates> {
+
+    public AvailableDatesSerializer() {
+        super(AvailableDates.class);
+    }
+
+    @Override
+    public void serialize(AvailableDates availableDates, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int size = availableDates.size();
+        gen.writeStartArray(availableDates, size);
+        for (int i = 0; i < size; i++) {
+            gen.writeString(IsoDateCache.get(availableDates.getEpochDay(i)));
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,35 @@
+package com.upgrade.volcano.island.reservation.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Backup generations kept on disk, newest first. Rewritten atomically after every backup,
+ * so it only ever lists completely written generations.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackupManifest {
+    private List<Generation> generations = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Generation {
+        private long id;
+        private Instant createdAt;
+        private String codec;
+        private String daysToReservationIdFile;
+        private String reservationLookupMapFile;
+        private int days;
+        private int reservations;
+        // Compressed size of both files
+        private long bytes;
+    }
+}
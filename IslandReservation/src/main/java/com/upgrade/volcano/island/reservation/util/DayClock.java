@@ -0,0 +1,55 @@
+package com.upgrade.volcano.island.reservation.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Cached today's date from the application Clock, so request validation doesn't read the clock on every request.
+ * Refreshed by the midnight purge job before it removes passed days, moves IsoDateCache window along.
+ */
+@Component
+public class DayClock {
+
+    private final Clock clock;
+    private volatile LocalDate today;
+
+    @Autowired
+    public DayClock(Clock clock) {
+        this.clock = clock;
+        refresh();
+    }
+
+    /**
+     * @return Today as epoch day
+     */
+    public long getToday() {
+        return today.toEpochDay();
+    }
+
+    public LocalDate getTodayDate() {
+        return today;
+    }
+
+    /**
+     * @return Current instant of the application Clock
+     */
+    public Instant now() {
+        return clock.instant();
+    }
+
+    /**
+     * @return Epoch day of the instant in the application Clock zone
+     */
+    public long toEpochDay(Instant instant) {
+        return LocalDate.ofInstant(instant, clock.getZone()).toEpochDay();
+    }
+
+    public void refresh() {
+        today = LocalDate.now(clock);
+        IsoDateCache.moveTo(today.toEpochDay());
+    }
+}
@@ -0,0 +1,38 @@
+package com.upgrade.volcano.island.reservation.util;
+
+import java.time.LocalDate;
+
+/**
+ * Date arithmetic on epoch day numbers (days since 1970-01-01, see LocalDate.toEpochDay()),
+ * so hot paths compare and iterate days as primitives without creating LocalDate instances.
+ */
+public final class EpochDays {
+
+    private EpochDays() {
+    }
+
+    /**
+     * @return true if day is within start and end days, both inclusive
+     */
+    public static boolean isWithin(long day, long startDay, long endDay) {
+        return day >= startDay && day <= endDay;
+    }
+
+    /**
+     * @return true if day is within reservation dates, both inclusive
+     */
+    public static boolean isWithin(long day, LocalDate startDate, LocalDate endDate) {
+        return isWithin(day, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * @return Number of days between including start and end days
+     */
+    public static long daysInclusive(long startDay, long endDay) {
+        return endDay - startDay + 1;
+    }
+
+    public static LocalDate toDate(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+}
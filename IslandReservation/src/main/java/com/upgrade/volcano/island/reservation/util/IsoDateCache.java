@@ -0,0 +1,64 @@
+package com.upgrade.volcano.island.reservation.util;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-formatted ISO dates (yyyy-MM-dd) for a rolling window of days starting shortly before today,
+ * long enough for multi-year booking horizons.
+ * Serialized strings cache their UTF-8 and JSON-quoted forms, so writing a cached date is a byte copy.
+ * The window follows DayClock, which moves it on refresh. Dates outside the window, or before DayClock
+ * sets it, are formatted on the spot.
+ */
+public final class IsoDateCache {
+
+    private static final int WINDOW_DAYS = 1024;
+    private static final int DAYS_BEFORE = 7;
+
+    private static volatile Window window;
+
+    private IsoDateCache() {
+    }
+
+    /**
+     * @param epochDay
+     * @return The ISO formatted date
+     */
+    public static SerializableString get(long epochDay) {
+        Window current = window;
+        if (current != null) {
+            long index = epochDay - current.firstDay;
+            if (index >= 0 && index < WINDOW_DAYS) {
+                return current.dates[(int) index];
+            }
+        }
+        return new SerializedString(LocalDate.ofEpochDay(epochDay).toString());
+    }
+
+    /**
+     * Move window to start shortly before today, called by DayClock.
+     *
+     * @param today epoch day
+     */
+    public static void moveTo(long today) {
+        long firstDay = today - DAYS_BEFORE;
+        Window current = window;
+        if (current == null || current.firstDay != firstDay) {
+            window = new Window(firstDay);
+        }
+    }
+
+    private static final class Window {
+        private final long firstDay;
+        private final SerializedString[] dates = new SerializedString[WINDOW_DAYS];
+
+        private Window(long firstDay) {
+            this.firstDay = firstDay;
+            for (int i = 0; i < WINDOW_DAYS; i++) {
+                dates[i] = new SerializedString(LocalDate.ofEpochDay(firstDay + i).toString());
+            }
+        }
+    }
+}
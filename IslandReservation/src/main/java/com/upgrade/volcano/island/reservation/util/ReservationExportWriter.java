@@ -0,0 +1,140 @@
+package com.upgrade.volcano.island.reservation.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrade.volcano.island.reservation.model.CancelledReservation;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Writes reservations and calendar days as newline-delimited JSON, one object per line,
+ * straight to the output stream with Jackson streaming generator.
+ */
+@Component
+public class ReservationExportWriter {
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+
+    public ReservationExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write reservations overlapping requested range and modified at or after modifiedSince, all filters are optional.
+     * Incremental export with modifiedSince is followed by tombstones of reservations cancelled at or after it.
+     *
+     * @param reservations
+     * @param cancellations
+     * @param startDate
+     * @param endDate
+     * @param modifiedSince
+     * @param outputStream
+     * @return The number of written reservations
+     */
+    public int writeReservations(ReservationBO[] reservations, CancelledReservation[] cancellations, LocalDate startDate,
+                                 LocalDate endDate, Instant modifiedSince, OutputStream outputStream) throws IOException {
+        int count = 0;
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            for (ReservationBO reservationBO : reservations) {
+                if (!matches(reservationBO.getStartDate(), reservationBO.getEndDate(), reservationBO.getModifiedAt(),
+                        startDate, endDate, modifiedSince)) {
+                    continue;
+                }
+                generator.writeStartObject();
+                generator.writeStringField("reservationId", reservationBO.getReservationId());
+                generator.writeStringField("firstName", reservationBO.getFirstName());
+                generator.writeStringField("lastName", reservationBO.getLastName());
+                generator.writeStringField("email", reservationBO.getEmail());
+                generator.writeStringField("startDate", reservationBO.getStartDate().toString());
+                generator.writeStringField("endDate", reservationBO.getEndDate().toString());
+                if (reservationBO.getModifiedAt() != null) {
+                    generator.writeStringField("modifiedAt", reservationBO.getModifiedAt().toString());
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                count++;
+            }
+            if (modifiedSince == null) {
+                // Full export replaces everything, cancelled reservations are simply absent
+                return count;
+            }
+            for (CancelledReservation cancelled : cancellations) {
+                if (!matches(cancelled.getStartDate(), cancelled.getEndDate(), cancelled.getCancelledAt(),
+                        startDate, endDate, modifiedSince)) {
+                    continue;
+                }
+                generator.writeStartObject();
+                generator.writeStringField("reservationId", cancelled.getReservationId());
+                generator.writeStringField("startDate", cancelled.getStartDate().toString());
+                generator.writeStringField("endDate", cancelled.getEndDate().toString());
+                generator.writeStringField("modifiedAt", cancelled.getCancelledAt().toString());
+                generator.writeBooleanField("cancelled", true);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write calendar days within requested range, free days have null reservationId.
+     *
+     * @param calendar
+     * @param startDate
+     * @param endDate
+     * @param outputStream
+     * @return The number of written days
+     */
+    public int writeCalendar(SortedMap<LocalDate, String> calendar, LocalDate startDate, LocalDate endDate,
+                             OutputStream outputStream) throws IOException {
+        int count = 0;
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            for (Map.Entry<LocalDate, String> entry : calendar.entrySet()) {
+                LocalDate date = entry.getKey();
+                if ((startDate != null && date.isBefore(startDate)) || (endDate != null && date.isAfter(endDate))) {
+                    continue;
+                }
+                generator.writeStartObject();
+                generator.writeStringField("date", date.toString());
+                generator.writeStringField("reservationId", entry.getValue());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        // Root values are separated by new line only
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        // Response stream is owned by the container
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private static boolean matches(LocalDate from, LocalDate to, Instant modifiedAt, LocalDate startDate, LocalDate endDate,
+                                   Instant modifiedSince) {
+        if (startDate != null && to.isBefore(startDate)) {
+            return false;
+        }
+        if (endDate != null && from.isAfter(endDate)) {
+            return false;
+        }
+        // Inclusive, so passing back the last seen modifiedAt never misses changes made within the same instant
+        return modifiedSince == null || (modifiedAt != null && !modifiedAt.isBefore(modifiedSince));
+    }
+}
@@ -1,101 +1,278 @@
 package com.upgrade.volcano.island.reservation.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
 import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.Deflater;
 
+/**
+ * Backs up reservations as compressed generations in backup directory, keeping configured number of generations
+ * listed in manifest. Files are written and read as streams, entries are never held as whole file in memory.
+ */
+@Slf4j
 @Component
 public class ReservationRepo {
 
     private final ObjectMapper objectMapper;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd", Locale.getDefault());
+    public final static String MANIFEST_FILE = "manifest.json";
+    // Uncompressed backup of earlier versions in working directory, restored when there is no manifest yet
     public final static String daysToReservationIdFile = "daysToReservationIdFile.txt";
     public final static String reservationLookupMapFile = "reservationLookupMapFile.txt";
 
-    public ReservationRepo(ObjectMapper objectMapper) {
+    private final Path backupDir;
+    private final int backupGenerations;
+    private final ReservationProperties.BackupCodec backupCodec;
+    private final DayClock dayClock;
+
+    public ReservationRepo(ObjectMapper objectMapper, ReservationProperties properties, DayClock dayClock) {
         this.objectMapper = objectMapper;
+        this.dayClock = dayClock;
+        this.backupDir = Paths.get(properties.getBackupDir());
+        this.backupGenerations = Math.max(1, properties.getBackupGenerations());
+        this.backupCodec = properties.getBackupCodec();
     }
 
     /**
-     * Backup Reservations to file in case of service crashes
+     * Backup Reservations to new generation in case of service crashes, generations past the configured number are deleted.
      */
     public void backupReservations(Map<LocalDate, String> daysToReservationId, Map<String, ReservationBO> reservationLookupMap) {
-        if (daysToReservationId != null && !daysToReservationId.isEmpty()) {
-            writeToFile(daysToReservationIdFile, daysToReservationId);
-            writeToFile(reservationLookupMapFile, reservationLookupMap);
+        if (daysToReservationId == null || daysToReservationId.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(backupDir);
+            BackupManifest manifest = readManifest();
+            List<BackupManifest.Generation> generations = manifest.getGenerations();
+            long id = generations.isEmpty() ? 1 : generations.get(0).getId() + 1;
+            String extension = backupCodec == ReservationProperties.BackupCodec.LZ4 ? ".lz4" : ".gz";
+            String daysFile = "daysToReservationId-" + id + extension;
+            String reservationsFile = "reservationLookupMap-" + id + extension;
+            long bytes = writeToFile(backupDir.resolve(daysFile), daysToReservationId)
+                    + writeToFile(backupDir.resolve(reservationsFile), reservationLookupMap);
+            // Generation must be on disk before manifest lists it
+            force(backupDir.resolve(daysFile));
+            force(backupDir.resolve(reservationsFile));
+            generations.add(0, new BackupManifest.Generation(id, dayClock.now(), backupCodec.name(), daysFile, reservationsFile,
+                    daysToReservationId.size(), reservationLookupMap.size(), bytes));
+
+            List<BackupManifest.Generation> expired = new ArrayList<>();
+            while (generations.size() > backupGenerations) {
+                expired.add(generations.remove(generations.size() - 1));
+            }
+            writeManifest(manifest);
+            // Deleted only once manifest no longer lists them
+            for (BackupManifest.Generation generation : expired) {
+                Files.deleteIfExists(backupDir.resolve(generation.getDaysToReservationIdFile()));
+                Files.deleteIfExists(backupDir.resolve(generation.getReservationLookupMapFile()));
+            }
+            log.info("Backed up {} days and {} reservations to generation {}, {} bytes", daysToReservationId.size(),
+                    reservationLookupMap.size(), id, bytes);
+        } catch (IOException e) {
+            log.error("Backup failed", e);
+        }
+    }
+
+    /**
+     * Read manifest from backup directory
+     *
+     * @return The BackupManifest, without generations if there is no backup yet
+     */
+    public BackupManifest readManifest() throws IOException {
+        Path manifestFile = backupDir.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifestFile)) {
+            return new BackupManifest();
+        }
+        return objectMapper.readValue(manifestFile.toFile(), BackupManifest.class);
+    }
+
+    private void writeManifest(BackupManifest manifest) throws IOException {
+        Path tempFile = backupDir.resolve(MANIFEST_FILE + ".tmp");
+        objectMapper.writeValue(tempFile.toFile(), manifest);
+        force(tempFile);
+        Files.move(tempFile, backupDir.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        try (FileChannel directory = FileChannel.open(backupDir, StandardOpenOption.READ)) {
+            // Persists the rename, not supported on every platform
+            directory.force(true);
+        } catch (IOException e) {
+            log.debug("Backup directory can't be synced: {}", e.getMessage());
         }
     }
 
     /**
-     * Write a generic map to a file key:value format
+     * Flush file content to disk, fsync applies to the file whichever descriptor it's called on.
+     */
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Write a generic map to a compressed file key:value format
      *
-     * @param fileName
+     * @param file
      * @param map
+     * @return The number of compressed bytes written
      */
-    private void writeToFile(String fileName, Map<?, ?> map) {
-        File file = new File(fileName);
-        try (BufferedWriter bf = new BufferedWriter(new FileWriter(file))) {
+    private long writeToFile(Path file, Map<?, ?> map) throws IOException {
+        try (BufferedWriter bf = new BufferedWriter(new OutputStreamWriter(compress(
+                new BufferedOutputStream(Files.newOutputStream(file))), StandardCharsets.UTF_8))) {
             for (Map.Entry<?, ?> entry : map.entrySet()) {
                 String strJson = entry.getValue() != null && !(entry.getValue() instanceof String) ?
                         objectMapper.writeValueAsString(entry.getValue()) : (String) entry.getValue();
                 bf.write(entry.getKey() + "::" + strJson);
                 bf.newLine();
             }
-            bf.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
         }
+        return Files.size(file);
+    }
+
+    private OutputStream compress(OutputStream out) throws IOException {
+        if (backupCodec == ReservationProperties.BackupCodec.LZ4) {
+            return new FramedLZ4CompressorOutputStream(out);
+        }
+        // Backups are written hourly from the calendar, favour speed over ratio
+        GzipParameters parameters = new GzipParameters();
+        parameters.setCompressionLevel(Deflater.BEST_SPEED);
+        return new GzipCompressorOutputStream(out, parameters);
+    }
+
+    private static InputStream decompress(InputStream in, String codec) throws IOException {
+        if (ReservationProperties.BackupCodec.LZ4.name().equals(codec)) {
+            return new FramedLZ4CompressorInputStream(in);
+        }
+        return new GzipCompressorInputStream(in);
     }
 
     /**
-     * Restore map from back up file that must be key:value format
+     * Restore calendar and reservations of the latest readable generation, both from the same generation.
+     * Unreadable generation, e.g. truncated by a crash, is skipped for the next older one.
+     * Without manifest uncompressed files of earlier versions are read.
      *
-     * @return Map<String, ReservationBO>
+     * @return The Backup, empty when there is nothing readable to restore
      */
-    public Map<String, ReservationBO> restoreReservationLookupMap() {
-        Map<String, ReservationBO> map = new HashMap<>();
-        File file = new File(reservationLookupMapFile);
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] entry = line.split("::");
-                map.put(entry[0], entry[1] == null ? null : objectMapper.readValue(entry[1], ReservationBO.class));
+    public Backup restore() {
+        List<BackupManifest.Generation> generations;
+        try {
+            generations = readManifest().getGenerations();
+        } catch (IOException e) {
+            log.error("Restore from backup failed, manifest is unreadable", e);
+            return new Backup(new HashMap<>(), new HashMap<>());
+        }
+        if (generations.isEmpty()) {
+            return restoreLegacy();
+        }
+        for (BackupManifest.Generation generation : generations) {
+            try {
+                Backup backup = new Backup(new HashMap<>(), new HashMap<>());
+                try (InputStream in = openGeneration(generation, generation.getDaysToReservationIdFile())) {
+                    readEntries(in, daysConsumer(backup.getDaysToReservationId()));
+                }
+                try (InputStream in = openGeneration(generation, generation.getReservationLookupMapFile())) {
+                    readEntries(in, reservationsConsumer(backup.getReservationLookupMap()));
+                }
+                if (generation != generations.get(0)) {
+                    log.warn("Restored older backup generation {}, newer generations are unreadable", generation.getId());
+                }
+                return backup;
+            } catch (Exception e) {
+                log.warn("Backup generation {} is unreadable, trying older one", generation.getId(), e);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-        return map;
+        log.error("Restore from backup failed, none of {} generations is readable", generations.size());
+        return new Backup(new HashMap<>(), new HashMap<>());
     }
 
-    /**
-     * Restore map from back up file that must be key:value format
-     *
-     * @return Map<LocalDate, String>
-     */
-    public Map<LocalDate, String> restoreDaysToReservationIdMap() {
-        Map<LocalDate, String> map = new HashMap<>();
-        File file = new File(daysToReservationIdFile);
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] entry = line.split("::");
-                map.put(LocalDate.parse(entry[0], DATE_FORMATTER), entry[1].equals("null") ? null : entry[1]);
+    private Backup restoreLegacy() {
+        Backup backup = new Backup(new HashMap<>(), new HashMap<>());
+        Path daysFile = Paths.get(daysToReservationIdFile);
+        Path reservationsFile = Paths.get(reservationLookupMapFile);
+        if (!Files.exists(daysFile) && !Files.exists(reservationsFile)) {
+            // Fresh install, nothing to restore
+            log.info("No backup found in {}, calendar and reservations start empty", backupDir.toAbsolutePath());
+            return backup;
+        }
+        try {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(daysFile))) {
+                readEntries(in, daysConsumer(backup.getDaysToReservationId()));
             }
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(reservationsFile))) {
+                readEntries(in, reservationsConsumer(backup.getReservationLookupMap()));
+            }
+            return backup;
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Restore from backup failed", e);
+            return new Backup(new HashMap<>(), new HashMap<>());
         }
-        return map;
+    }
+
+    private InputStream openGeneration(BackupManifest.Generation generation, String file) throws IOException {
+        return decompress(new BufferedInputStream(Files.newInputStream(backupDir.resolve(file))), generation.getCodec());
+    }
+
+    private static BiConsumer<String, String> daysConsumer(Map<LocalDate, String> map) {
+        return (key, value) -> map.put(LocalDate.parse(key, DATE_FORMATTER), value.equals("null") ? null : value);
+    }
+
+    private BiConsumer<String, String> reservationsConsumer(Map<String, ReservationBO> map) {
+        return (key, value) -> {
+            try {
+                map.put(key, value == null ? null : objectMapper.readValue(value, ReservationBO.class));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unreadable reservation " + key, e);
+            }
+        };
+    }
+
+    private static void readEntries(InputStream in, BiConsumer<String, String> entryConsumer) throws IOException {
+        BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = br.readLine()) != null) {
+            String[] entry = line.split("::");
+            entryConsumer.accept(entry[0], entry[1]);
+        }
+    }
+
+    /**
+     * Calendar and reservations read from one backup generation.
+     */
+    @Value
+    public static class Backup {
+        Map<LocalDate, String> daysToReservationId;
+        Map<String, ReservationBO> reservationLookupMap;
     }
 }
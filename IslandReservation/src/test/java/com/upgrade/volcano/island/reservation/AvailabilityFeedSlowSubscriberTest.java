@@ -0,0 +1,67 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.event.AvailabilityFeed;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Availability feed runs without Spring context, a subscriber blocked in send stands for a stalled client.
+ */
+public class AvailabilityFeedSlowSubscriberTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AvailabilityFeed feed;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        feed.shutdown();
+    }
+
+    @Test
+    public void stalledSubscriberIsDisconnectedAndDoesNotHoldSender() throws Exception {
+        ReservationProperties properties = new ReservationProperties();
+        properties.setAvailabilityFeedSenderThreads(1);
+        properties.setAvailabilityFeedSendTimeout(Duration.ofMillis(100));
+        feed = new AvailabilityFeed(properties);
+
+        CountDownLatch stalledSending = new CountDownLatch(1);
+        feed.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                stalledSending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        feed.publish(Collections.singletonMap(LocalDate.now(), false));
+        assertTrue(stalledSending.await(1, TimeUnit.SECONDS));
+
+        // Only sender thread is stuck, healthy subscriber still gets changes once stalled one is disconnected
+        CountDownLatch received = new CountDownLatch(1);
+        feed.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.countDown();
+            }
+        });
+        feed.publish(Collections.singletonMap(LocalDate.now(), true));
+        assertTrue(received.await(2, TimeUnit.SECONDS));
+        assertEquals(1, feed.getSubscriberCount());
+    }
+}
@@ -0,0 +1,47 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AvailabilityFeedTest extends ReservationBaseTest {
+
+    @Test
+    public void feedPushesReservedAndFreedDays() throws Exception {
+        MvcResult feedResult = mockMvc.perform(get("/api/campsite/reservation/availableDates/feed")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("fdtest@domain.net").firstName("Feed").lastName("Watcher")
+                        .startDate(now.plusDays(18)).endDate(now.plusDays(19)).build();
+        ReservationDTO response = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        // Both reserved days are pushed as unavailable
+        String content = awaitFeedContent(feedResult, "\"available\":false");
+        assertTrue(content.contains("event:availability"));
+        assertTrue(content.contains("{\"date\":\"" + now.plusDays(18) + "\",\"available\":false}"));
+        assertTrue(content.contains("{\"date\":\"" + now.plusDays(19) + "\",\"available\":false}"));
+
+        // Cancellation frees them again
+        reservationDeleteRequest(response.getReservationId(), response.getEmail(), status().isOk());
+        content = awaitFeedContent(feedResult, "\"available\":true");
+        assertTrue(content.contains("{\"date\":\"" + now.plusDays(18) + "\",\"available\":true}"));
+    }
+
+    private String awaitFeedContent(MvcResult feedResult, String expected) throws Exception {
+        String content = feedResult.getResponse().getContentAsString();
+        for (int i = 0; i < 100 && !content.contains(expected); i++) {
+            Thread.sleep(20);
+            content = feedResult.getResponse().getContentAsString();
+        }
+        return content;
+    }
+}
@@ -1,20 +1,29 @@
 package com.upgrade.volcano.island.reservation;
 
+import com.upgrade.volcano.island.reservation.model.AvailableDates;
 import com.upgrade.volcano.island.reservation.rest.BaseController;
+import com.upgrade.volcano.island.reservation.rest.model.AvailabilityBitmapDTO;
 import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assume;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
 import java.time.LocalDate;
+import java.util.BitSet;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Slf4j
 public class AvailableDatesEndpointTest extends ReservationBaseTest {
     @Test
     public void getAllAvailableDates() throws Exception {
@@ -109,4 +118,61 @@ public class AvailableDatesEndpointTest extends ReservationBaseTest {
         reservationDeleteRequest(response1.getReservationId(), response1.getEmail(), status().isOk());
         reservationDeleteRequest(response2.getReservationId(), response2.getEmail(), status().isOk());
     }
+
+    @Test
+    public void getAvailableDatesAsBitmap() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("bmtest@domain.net").firstName("Bit").lastName("Map")
+                        .startDate(now.plusDays(5)).endDate(now.plusDays(6)).build();
+        ReservationDTO response = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/campsite/reservation/availableDates")
+                        .param("format", "bitmap")
+                        .param("startDate", now.plusDays(4).toString())
+                        .param("endDate", now.plusDays(8).toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+        AvailabilityBitmapDTO availability = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), AvailabilityBitmapDTO.class);
+        assertEquals(now.plusDays(4), availability.getFrom());
+        assertEquals(5, availability.getDays());
+        // now + 4, 7 and 8 are available
+        assertEquals(BitSet.valueOf(new long[]{0b11001}), BitSet.valueOf(availability.getBitmap()));
+
+        reservationDeleteRequest(response.getReservationId(), response.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void availableDatesSerializeWithLessAllocationThanLocalDates() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        AvailableDates availableDates = reservationManager.getAvailableDates(null, null);
+        assertEquals(objectMapper.writeValueAsString(availableDates.toList()), objectMapper.writeValueAsString(availableDates));
+        int requests = 20_000;
+        long epochDayBytes = 0;
+        long localDateBytes = 0;
+        long epochDayNanos = 0;
+        long localDateNanos = 0;
+        // First round warms up both
+        for (int round = 0; round < 2; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                objectMapper.writeValue(OutputStream.nullOutputStream(), availableDates);
+            }
+            epochDayNanos = System.nanoTime() - start;
+            epochDayBytes = threads.getCurrentThreadAllocatedBytes() - before;
+            // Previous response: list of LocalDate formatted by the JavaTimeModule serializer
+            before = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                objectMapper.writeValue(OutputStream.nullOutputStream(), availableDates.toList());
+            }
+            localDateNanos = System.nanoTime() - start;
+            localDateBytes = threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        log.info("Serializing {} available dates per request: epoch days {} bytes {} ns, LocalDate list {} bytes {} ns",
+                availableDates.size(), epochDayBytes / requests, epochDayNanos / requests,
+                localDateBytes / requests, localDateNanos / requests);
+        assertTrue(epochDayBytes < localDateBytes);
+    }
 }
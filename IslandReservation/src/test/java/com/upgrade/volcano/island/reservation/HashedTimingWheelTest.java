@@ -0,0 +1,62 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.engine.HashedTimingWheel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashedTimingWheelTest {
+
+    private HashedTimingWheel wheel;
+
+    @Before
+    public void setupWheel() {
+        // Small wheel, so timeouts wait for more than one round
+        wheel = new HashedTimingWheel("test-wheel", Duration.ofMillis(10), 8);
+    }
+
+    @After
+    public void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    public void onlyNotCancelledTimeoutsExpire() throws Exception {
+        int timeouts = 100_000;
+        CountDownLatch expired = new CountDownLatch(timeouts / 2);
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        List<HashedTimingWheel.Timeout> cancelled = new ArrayList<>();
+        for (int i = 0; i < timeouts; i++) {
+            Duration delay = Duration.ofMillis(500 + i % 200);
+            if (i % 2 == 0) {
+                wheel.schedule(expired::countDown, delay);
+            } else {
+                cancelled.add(wheel.schedule(cancelledRuns::incrementAndGet, delay));
+            }
+        }
+        cancelled.forEach(HashedTimingWheel.Timeout::cancel);
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(0, cancelledRuns.get());
+    }
+
+    @Test
+    public void timeoutDoesNotExpireEarly() throws Exception {
+        CountDownLatch expired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        wheel.schedule(expired::countDown, Duration.ofMillis(200));
+        assertTrue(expired.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+    }
+}
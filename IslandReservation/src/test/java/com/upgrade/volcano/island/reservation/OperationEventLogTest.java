@@ -0,0 +1,83 @@
+package com.upgrade.volcano.island.reservation;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.event.OperationEventLog;
+import com.upgrade.volcano.island.reservation.exception.ValidationException;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OperationEventLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(OperationEventLog.LOGGER_NAME);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @Before
+    public void attachAppender() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @After
+    public void detachAppender() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    public void sampledOperationsAreLoggedAsJson() throws Exception {
+        ReservationProperties properties = new ReservationProperties();
+        properties.setEventLogSampleRate(1);
+        DayClock dayClock = new DayClock(Clock.fixed(Instant.parse("2021-11-30T10:15:30Z"), ZoneOffset.UTC));
+        OperationEventLog operationLog = new OperationEventLog(properties, dayClock);
+        ReservationBO reservationBO = ReservationBO.builder().reservationId("AAAAAAAA").email("ltest@domain.net")
+                .startDate(LocalDate.of(2021, 12, 1)).endDate(LocalDate.of(2021, 12, 2)).build();
+
+        assertEquals(reservationBO, operationLog.record("reserve", reservationBO, () -> reservationBO));
+        try {
+            operationLog.record("cancel", "BB\"B", () -> {
+                throw new ValidationException("Reservation not found!");
+            });
+            fail();
+        } catch (ValidationException e) {
+            // expected
+        }
+
+        assertEquals(2, appender.list.size());
+        JsonNode reserve = objectMapper.readTree(appender.list.get(0).getFormattedMessage());
+        assertEquals("reserve", reserve.get("op").asText());
+        assertEquals("2021-11-30T10:15:30Z", reserve.get("ts").asText());
+        assertEquals("ok", reserve.get("outcome").asText());
+        assertEquals("AAAAAAAA", reserve.get("reservationId").asText());
+        assertEquals("2021-12-01", reserve.get("startDate").asText());
+        assertTrue(reserve.get("durationUs").isNumber());
+        // Guest data is not logged
+        assertFalse(appender.list.get(0).getFormattedMessage().contains("ltest@domain.net"));
+        JsonNode cancel = objectMapper.readTree(appender.list.get(1).getFormattedMessage());
+        assertEquals("ValidationException", cancel.get("outcome").asText());
+        assertEquals("BB\"B", cancel.get("reservationId").asText());
+
+        // Disabled sampling logs nothing
+        properties.setEventLogSampleRate(0);
+        new OperationEventLog(properties, dayClock).record("reserve", reservationBO, () -> reservationBO);
+        assertEquals(2, appender.list.size());
+    }
+}
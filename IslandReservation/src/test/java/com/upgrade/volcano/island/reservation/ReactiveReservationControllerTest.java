@@ -0,0 +1,110 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.admission.BookingAdmissionControl;
+import com.upgrade.volcano.island.reservation.admission.IdempotencyCache;
+import com.upgrade.volcano.island.reservation.rest.ReactiveReservationController;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Reactive controller is bound directly, the application context itself runs on the servlet stack.
+ */
+public class ReactiveReservationControllerTest extends ReservationBaseTest {
+
+    @Autowired
+    private ReactiveReservationManager reactiveReservationManager;
+
+    @Autowired
+    private BookingAdmissionControl admissionControl;
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private DayClock dayClock;
+
+    private WebTestClient webTestClient;
+
+    @Before
+    public void setupWebTestClient() {
+        webTestClient = WebTestClient.bindToController(new ReactiveReservationController(reservationMapper, reactiveReservationManager,
+                admissionControl, idempotencyCache, dayClock, reservationProperties))
+                .httpMessageCodecs(configurer -> {
+                    configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+    }
+
+    @Test
+    public void reserveUpdateAndCancel() {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("rxtest@domain.net").firstName("Rex").lastName("Active")
+                        .startDate(now.plusDays(14)).endDate(now.plusDays(15)).build();
+
+        ReservationDTO response = webTestClient.post().uri("/api/campsite/reservations")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(reservationDTO)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ReservationDTO.class).returnResult().getResponseBody();
+        assertNotNull(response.getReservationId());
+        assertEquals(now.plusDays(14), response.getStartDate());
+
+        // Reserved days are gone from availability
+        List<LocalDate> availableDates = availableDates(now.plusDays(13), now.plusDays(16));
+        assertEquals(List.of(now.plusDays(13), now.plusDays(16)), availableDates);
+
+        // Same days again are rejected with mapped exception
+        String message = webTestClient.post().uri("/api/campsite/reservations")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(reservationDTO)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertEquals("The campsite for requested dates is occupied!", message);
+
+        // Update moves reservation one day later
+        reservationDTO.setStartDate(now.plusDays(15));
+        reservationDTO.setEndDate(now.plusDays(16));
+        ReservationDTO updated = webTestClient.put().uri("/api/campsite/reservation/{reservationId}", response.getReservationId())
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(reservationDTO)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReservationDTO.class).returnResult().getResponseBody();
+        assertEquals(now.plusDays(15), updated.getStartDate());
+
+        webTestClient.get().uri("/api/campsite/reservation/{reservationId}", updated.getReservationId())
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/campsite/reservation/{reservationId}", response.getReservationId())
+                .exchange()
+                .expectStatus().isNotFound();
+
+        // Cancel frees the days
+        webTestClient.delete().uri("/api/campsite/reservation/{reservationId}/{userId}", updated.getReservationId(), updated.getEmail())
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals(4, availableDates(now.plusDays(13), now.plusDays(16)).size());
+    }
+
+    private List<LocalDate> availableDates(LocalDate startDate, LocalDate endDate) {
+        return webTestClient.get().uri("/api/campsite/reservation/availableDates?startDate={startDate}&endDate={endDate}", startDate, endDate)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<LocalDate>>() {
+                }).returnResult().getResponseBody();
+    }
+}
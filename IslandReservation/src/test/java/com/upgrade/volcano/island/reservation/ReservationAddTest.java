@@ -31,7 +31,7 @@ public class ReservationAddTest extends ReservationBaseTest {
                 ReservationDTO.builder().email("ptest@domain.net").firstName("Patty").lastName("Barry")
                         .startDate(now.plusDays(29)).endDate(now.plusDays(31)).build();
         MvcResult mvcResult = reservationsPostRequest(reservationDTO, status().isBadRequest());
-        assertMessageResponse("Reservation allowed up to a month in advance!", mvcResult);
+        assertMessageResponse("Reservation allowed up to 30 days in advance!", mvcResult);
     }
 
     @Test
@@ -0,0 +1,71 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.admission.BookingAdmissionControl;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.exception.TooManyRequestsException;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationAdmissionControlTest extends ReservationBaseTest {
+
+    @Test
+    public void floodingGuestIsRateLimited() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("hrtest@domain.net").firstName("Holly").lastName("Rain")
+                        .startDate(now.plusDays(15)).endDate(now.plusDays(15)).build();
+        ReservationDTO response = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        // Occupied dates are shed from the availability snapshot until guest's bucket runs out
+        ReservationDTO floodDTO =
+                ReservationDTO.builder().email("fltest@domain.net").firstName("Flo").lastName("Odd")
+                        .startDate(now.plusDays(15)).endDate(now.plusDays(15)).build();
+        IntStream.range(0, 10).forEach(i -> {
+            try {
+                MvcResult mvcResult = reservationsPostRequest(floodDTO, status().isBadRequest());
+                assertMessageResponse("The campsite for requested dates is occupied!", mvcResult);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        MvcResult mvcResult = reservationsPostRequest(floodDTO, status().isTooManyRequests());
+        assertMessageResponse("Too many booking requests, please retry later!", mvcResult);
+
+        // Other guests are not affected
+        reservationDTO = ReservationDTO.builder().email("ottest2@domain.net").firstName("Otto").lastName("Trane")
+                .startDate(now.plusDays(16)).endDate(now.plusDays(16)).build();
+        ReservationDTO response2 = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        // clean up cancel reservations
+        reservationDeleteRequest(response.getReservationId(), response.getEmail(), status().isOk());
+        reservationDeleteRequest(response2.getReservationId(), response2.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void newEmailsBeyondCapShareOneBucket() {
+        ReservationProperties properties = new ReservationProperties();
+        properties.setRateLimitMaxClients(2);
+        BookingAdmissionControl admissionControl = new BookingAdmissionControl(properties);
+        admissionControl.admit("a@domain.net");
+        admissionControl.admit("b@domain.net");
+        // Every further email is a new client, together they get one bucket
+        for (int i = 0; i < properties.getRateLimitCapacity(); i++) {
+            admissionControl.admit("flood" + i + "@domain.net");
+        }
+        try {
+            admissionControl.admit("flood@domain.net");
+            fail("Expected TooManyRequestsException");
+        } catch (TooManyRequestsException e) {
+            assertEquals("Too many booking requests, please retry later!", e.getMessage());
+        }
+        assertEquals(2, admissionControl.size());
+        // Clients with a bucket are not affected
+        admissionControl.admit("a@domain.net");
+    }
+}
@@ -47,6 +47,8 @@ public abstract class ReservationBaseTest {
     protected static final LocalDate now = LocalDate.now();
     protected static final MediaType contentType = new MediaType(MediaType.APPLICATION_JSON.getType(),
             MediaType.APPLICATION_JSON.getSubtype(), StandardCharsets.UTF_8);
+    // Matches campsite.reservation.adminToken of TEST properties
+    protected static final String ADMIN_AUTHORIZATION = "Bearer test-admin-token";
 
     protected MockMvc mockMvc;
     protected HttpMessageConverter<Object> mappingJackson2HttpMessageConverter;
@@ -135,6 +137,24 @@ public abstract class ReservationBaseTest {
                 .andReturn();
     }
 
+    /**
+     * Perform get reservations request by email
+     */
+    protected MvcResult reservationsByEmailGetRequest(String email, Integer page, Integer size, ResultMatcher resultMatcher) throws Exception {
+        return mockMvc.perform(get("/api/campsite/reservations")
+                        .param("email", email)
+                        .param("page", page == null ? null : page.toString())
+                        .param("size", size == null ? null : size.toString()))
+                .andDo(print())
+                .andExpect(resultMatcher)
+                .andReturn();
+    }
+
+    protected List<ReservationDTO> getListOfReservationsFromResponse(MvcResult mvcResult) throws UnsupportedEncodingException, JsonProcessingException {
+        return objectMapper.readValue(mvcResult.getResponse().getContentAsString(), new TypeReference<>() {
+        });
+    }
+
     protected ReservationDTO getReservationDTOFromResponse(MvcResult mvcResult) throws UnsupportedEncodingException, JsonProcessingException {
         return objectMapper.readValue(mvcResult.getResponse().getContentAsString(), ReservationDTO.class);
     }
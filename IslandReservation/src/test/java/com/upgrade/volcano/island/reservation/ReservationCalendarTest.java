@@ -0,0 +1,232 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.model.AvailabilitySnapshot;
+import com.upgrade.volcano.island.reservation.model.FreeRun;
+import com.upgrade.volcano.island.reservation.model.ReservationCalendar;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@Slf4j
+public class ReservationCalendarTest {
+
+    private static final LocalDate today = LocalDate.of(2021, 12, 1);
+
+    @Test
+    public void putGetAndPurgeDays() {
+        long day = today.toEpochDay();
+        ReservationCalendar calendar = new ReservationCalendar();
+        // Days are added out of order and past initial capacity
+        for (int i = 100; i >= 1; i--) {
+            calendar.put(day + i, null);
+        }
+        calendar.put(day + 5, "AAAAAAAA");
+        calendar.put(day + 6, "AAAAAAAA");
+
+        assertEquals(100, calendar.size());
+        assertEquals(day + 1, calendar.getFirstDay());
+        assertEquals(day + 100, calendar.getLastDay());
+        assertTrue(calendar.contains(day + 1));
+        assertFalse(calendar.contains(day));
+        assertFalse(calendar.contains(day + 101));
+        assertNull(calendar.get(day + 4));
+        assertEquals("AAAAAAAA", calendar.get(day + 5));
+
+        // Removing passed days keeps the rest in place
+        calendar.removeUpTo(day + 5);
+        assertEquals(95, calendar.size());
+        assertEquals(day + 6, calendar.getFirstDay());
+        assertEquals("AAAAAAAA", calendar.get(day + 6));
+        assertFalse(calendar.contains(day + 5));
+
+        SortedMap<LocalDate, String> map = calendar.toMap();
+        assertEquals(95, map.size());
+        assertEquals(today.plusDays(6), map.firstKey());
+        assertEquals(today.plusDays(100), map.lastKey());
+        assertEquals(calendar.size(), ReservationCalendar.of(map).size());
+    }
+
+    @Test
+    public void reserveAndCancelAllocateNothingPerDay() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        long day = today.toEpochDay();
+        ReservationCalendar calendar = new ReservationCalendar();
+        // Previous calendar, LocalDate keys walked with plusDays
+        Map<LocalDate, String> map = new HashMap<>();
+        for (int i = 1; i <= 30; i++) {
+            calendar.put(day + i, null);
+            map.put(today.plusDays(i), null);
+        }
+        int cycles = 200_000;
+        long calendarBytes = 0;
+        long mapBytes = 0;
+        // First round warms up both
+        for (int round = 0; round < 2; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < cycles; i++) {
+                long startDay = day + 1 + i % 28;
+                if (calendarFree(calendar, startDay, startDay + 2)) {
+                    calendarFill(calendar, startDay, startDay + 2, "AAAAAAAA");
+                }
+                calendarFill(calendar, startDay, startDay + 2, null);
+            }
+            calendarBytes = threads.getCurrentThreadAllocatedBytes() - before;
+            before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < cycles; i++) {
+                LocalDate startDate = today.plusDays(1 + i % 28);
+                if (mapFree(map, startDate, startDate.plusDays(2))) {
+                    mapFill(map, startDate, startDate.plusDays(2), "AAAAAAAA");
+                }
+                mapFill(map, startDate, startDate.plusDays(2), null);
+            }
+            mapBytes = threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        log.info("Reserve and cancel of 3 days, allocated per cycle: calendar {} bytes, LocalDate map {} bytes",
+                (double) calendarBytes / cycles, (double) mapBytes / cycles);
+        // Allowing for the measuring itself, well below one LocalDate (24 bytes) per cycle
+        assertTrue(calendarBytes < cycles);
+    }
+
+    private static boolean calendarFree(ReservationCalendar calendar, long startDay, long endDay) {
+        for (long day = startDay; day <= endDay; day++) {
+            if (calendar.get(day) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void calendarFill(ReservationCalendar calendar, long startDay, long endDay, String reservationId) {
+        for (long day = startDay; day <= endDay; day++) {
+            calendar.put(day, reservationId);
+        }
+    }
+
+    private static boolean mapFree(Map<LocalDate, String> map, LocalDate startDate, LocalDate endDate) {
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (map.get(date) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void mapFill(Map<LocalDate, String> map, LocalDate startDate, LocalDate endDate, String reservationId) {
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            map.put(date, reservationId);
+        }
+    }
+
+    @Test
+    public void snapshotFromCalendar() {
+        long day = today.toEpochDay();
+        ReservationCalendar calendar = new ReservationCalendar();
+        for (int i = 1; i <= 5; i++) {
+            calendar.put(day + i, i == 3 ? "AAAAAAAA" : null);
+        }
+        AvailabilitySnapshot snapshot = AvailabilitySnapshot.of(calendar);
+        assertTrue(snapshot.isAvailable(day + 1));
+        assertFalse(snapshot.isAvailable(day + 3));
+        assertFalse(snapshot.isAvailable(day + 6));
+        assertEquals(Arrays.asList(today.plusDays(1), today.plusDays(2), today.plusDays(4), today.plusDays(5)),
+                snapshot.getAvailableDates(null, null).toList());
+    }
+
+    @Test
+    public void farAwayRangeEndsAreClamped() {
+        long day = today.toEpochDay();
+        ReservationCalendar calendar = new ReservationCalendar();
+        for (int i = 1; i <= 5; i++) {
+            calendar.put(day + i, i == 3 ? "AAAAAAAA" : null);
+        }
+        AvailabilitySnapshot snapshot = AvailabilitySnapshot.of(calendar);
+        assertEquals(4, snapshot.getAvailableDates(LocalDate.MIN, LocalDate.MAX).size());
+        assertEquals(5, snapshot.getAvailabilityBitmap(LocalDate.MIN, LocalDate.MAX).getDays());
+        assertEquals(2, snapshot.getLongestFreeRun(LocalDate.MIN, LocalDate.MAX).getDays());
+        // Ranges wholly before or after the calendar are empty instead of wrapping around
+        assertEquals(0, snapshot.getAvailableDates(LocalDate.MAX, null).size());
+        // 2^32 days after the first day would wrap to the first day itself
+        LocalDate wrapping = today.plusDays(1 + (1L << 32));
+        assertEquals(0, snapshot.getAvailableDates(wrapping, null).size());
+        assertEquals(0, snapshot.getAvailabilityBitmap(wrapping, null).getDays());
+        assertEquals(0, snapshot.getAvailableDates(null, LocalDate.MIN).size());
+        assertEquals(0, snapshot.getAvailabilityBitmap(LocalDate.MAX, LocalDate.MAX).getDays());
+        assertEquals(0, snapshot.getAvailabilityBitmap(LocalDate.MIN, LocalDate.MIN).getDays());
+        assertEquals(FreeRun.NONE, snapshot.getLongestFreeRun(null, LocalDate.MIN));
+        assertEquals(FreeRun.NONE, snapshot.getLongestFreeRun(LocalDate.MAX, null));
+    }
+
+    @Test
+    public void freeDaysOverLongHorizon() {
+        long day = today.toEpochDay();
+        ReservationCalendar calendar = new ReservationCalendar();
+        for (int i = 1; i <= 548; i++) {
+            calendar.put(day + i, i % 100 == 0 ? "AAAAAAAA" : null);
+        }
+        assertEquals(548 - 5, calendar.getFreeDays(day + 1, day + 548).cardinality());
+
+        // A day passes, calendar is extended to keep the horizon
+        calendar.removeUpTo(day + 1);
+        calendar.put(day + 549, null);
+        assertEquals(548, calendar.size());
+        assertEquals(day + 2, calendar.getFirstDay());
+        assertEquals(day + 549, calendar.getLastDay());
+        AvailabilitySnapshot snapshot = AvailabilitySnapshot.of(calendar);
+        assertFalse(snapshot.isAvailable(day + 500));
+        assertTrue(snapshot.isAvailable(day + 549));
+        assertEquals(Arrays.asList(today.plusDays(499), today.plusDays(501)),
+                snapshot.getAvailableDates(today.plusDays(499), today.plusDays(501)).toList());
+    }
+
+    @Test
+    public void longestFreeRunMatchesScan() {
+        long day = today.toEpochDay();
+        Random random = new Random(42);
+        for (int size = 1; size <= 70; size++) {
+            ReservationCalendar calendar = new ReservationCalendar();
+            boolean[] free = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                free[i] = random.nextInt(3) > 0;
+                calendar.put(day + i, free[i] ? null : "AAAAAAAA");
+            }
+            AvailabilitySnapshot snapshot = AvailabilitySnapshot.of(calendar);
+            for (int from = 0; from < size; from++) {
+                for (int to = from; to < size; to++) {
+                    // Earliest longest run by scan
+                    int bestStart = 0, best = 0, runStart = from;
+                    for (int i = from; i <= to; i++) {
+                        if (!free[i]) {
+                            runStart = i + 1;
+                        } else if (i - runStart + 1 > best) {
+                            best = i - runStart + 1;
+                            bestStart = runStart;
+                        }
+                    }
+                    FreeRun run = snapshot.getLongestFreeRun(today.plusDays(from), today.plusDays(to));
+                    assertEquals(best, run.getDays());
+                    if (best > 0) {
+                        assertEquals(today.plusDays(bestStart), run.getStartDate());
+                        assertEquals(today.plusDays(bestStart + best - 1), run.getEndDate());
+                    } else {
+                        assertNull(run.getStartDate());
+                    }
+                }
+            }
+        }
+        assertEquals(FreeRun.NONE, AvailabilitySnapshot.EMPTY.getLongestFreeRun(null, null));
+    }
+}
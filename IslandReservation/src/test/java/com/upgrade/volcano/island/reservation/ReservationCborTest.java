@@ -0,0 +1,103 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrade.volcano.island.reservation.model.AvailabilityBitmap;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Slf4j
+public class ReservationCborTest extends ReservationBaseTest {
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+    @Test
+    public void reserveAndGetAvailabilityInCbor() throws Exception {
+        ObjectMapper cborMapper = cborHttpMessageConverter.getObjectMapper();
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("cbtest@domain.net").firstName("Cee").lastName("Bor")
+                        .startDate(now.plusDays(3)).endDate(now.plusDays(4)).build();
+
+        // Same endpoint, request and response bodies are CBOR
+        MvcResult mvcResult = mockMvc.perform(post("/api/campsite/reservations")
+                        .content(cborMapper.writeValueAsBytes(reservationDTO))
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        ReservationDTO response = cborMapper.readValue(mvcResult.getResponse().getContentAsByteArray(), ReservationDTO.class);
+        assertNotNull(response.getReservationId());
+        assertEquals(now.plusDays(3), response.getStartDate());
+
+        // Availability is start epoch day plus bitmap
+        mvcResult = mockMvc.perform(get("/api/campsite/reservation/availableDates")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        AvailabilityBitmap availability = cborMapper.readValue(mvcResult.getResponse().getContentAsByteArray(), AvailabilityBitmap.class);
+        assertEquals(now.plusDays(1).toEpochDay(), availability.getFrom());
+        assertEquals(30, availability.getDays());
+        BitSet bitmap = BitSet.valueOf(availability.getBitmap());
+        assertEquals(28, bitmap.cardinality());
+        assertTrue(bitmap.get(0));
+        assertFalse(bitmap.get(2));
+        assertFalse(bitmap.get(3));
+
+        // clean up cancel reservation
+        reservationDeleteRequest(response.getReservationId(), response.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void availabilityPayloadSizeAndParseTimeInJsonAndCbor() throws Exception {
+        ObjectMapper cborMapper = cborHttpMessageConverter.getObjectMapper();
+        byte[] json = mockMvc.perform(get("/api/campsite/reservation/availableDates"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mockMvc.perform(get("/api/campsite/reservation/availableDates")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        TypeReference<List<LocalDate>> dates = new TypeReference<List<LocalDate>>() {
+        };
+        int parses = 20_000;
+        long jsonNanos = 0;
+        long cborNanos = 0;
+        // First round warms up both, client side parse into dates and bitmap
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < parses; i++) {
+                assertEquals(30, objectMapper.readValue(json, dates).size());
+            }
+            jsonNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < parses; i++) {
+                assertEquals(30, cborMapper.readValue(cbor, AvailabilityBitmap.class).getDays());
+            }
+            cborNanos = System.nanoTime() - start;
+        }
+        log.info("30 day availability: JSON {} bytes parsed in {} ns, CBOR bitmap {} bytes parsed in {} ns",
+                json.length, jsonNanos / parses, cbor.length, cborNanos / parses);
+        assertTrue(cbor.length < json.length);
+    }
+}
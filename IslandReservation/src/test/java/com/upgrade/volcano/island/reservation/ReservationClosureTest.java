@@ -0,0 +1,159 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.event.ReservationEventBus;
+import com.upgrade.volcano.island.reservation.exception.AuthenticationException;
+import com.upgrade.volcano.island.reservation.rest.AdminAuthorization;
+import com.upgrade.volcano.island.reservation.rest.ReservationAdminController;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationClosureTest extends ReservationBaseTest {
+
+    @Autowired
+    private ReservationEventBus eventBus;
+
+    @Autowired
+    private DayClock dayClock;
+
+    @Test
+    public void closeCancelsOverlappingReservationsAndHolds() throws Exception {
+        long publishedBefore = getMetrics().get("published").asLong();
+        JsonNode statisticsBefore = getStatistics();
+        ReservationDTO firstDTO = ReservationDTO.builder().email("cltest@domain.net").firstName("Clo").lastName("Sure")
+                .startDate(now.plusDays(3)).endDate(now.plusDays(4)).build();
+        ReservationDTO first = getReservationDTOFromResponse(reservationsPostRequest(firstDTO, status().isCreated()));
+        ReservationDTO secondDTO = ReservationDTO.builder().email("cltest@domain.net").firstName("Clo").lastName("Sure")
+                .startDate(now.plusDays(6)).endDate(now.plusDays(7)).build();
+        ReservationDTO second = getReservationDTOFromResponse(reservationsPostRequest(secondDTO, status().isCreated()));
+        ReservationDTO holdDTO = ReservationDTO.builder().email("clhold@domain.net").firstName("Clo").lastName("Hold")
+                .startDate(now.plusDays(5)).endDate(now.plusDays(5)).build();
+        ReservationDTO hold = getReservationDTOFromResponse(mockMvc.perform(post("/api/campsite/holds")
+                        .content(objectMapper.writeValueAsString(holdDTO))
+                        .contentType(contentType))
+                .andExpect(status().isCreated())
+                .andReturn());
+        // Held day is not booked
+        assertEquals(statisticsBefore.get("bookedDays").asInt() + 4, getStatistics().get("bookedDays").asInt());
+
+        // Both reservations reach into closed range, their days outside range are freed
+        JsonNode summary = readJson(closuresRequest(post("/api/campsite/admin/closures"), now.plusDays(4), now.plusDays(6), status().isOk()));
+        assertEquals(3, summary.get("closedDays").asInt());
+        assertEquals(first.getReservationId(), summary.get("cancelledReservationIds").get(0).asText());
+        assertEquals(second.getReservationId(), summary.get("cancelledReservationIds").get(1).asText());
+        assertEquals(1, summary.get("releasedHolds").asInt());
+        assertEquals(0, summary.get("droppedEvents").asInt());
+        assertEquals(List.of(now.plusDays(2), now.plusDays(3), now.plusDays(7), now.plusDays(8)),
+                getListOfDatesFromResponse(availableDatesRangeGetRequest(now.plusDays(2).toString(), now.plusDays(8).toString(), status().isOk())));
+        reservationGetRequest(first.getReservationId(), status().isNotFound());
+        reservationGetRequest(second.getReservationId(), status().isNotFound());
+        mockMvc.perform(post("/api/campsite/hold/{holdId}/{userId}", hold.getReservationId(), hold.getEmail()))
+                .andExpect(status().isNotFound());
+        // Two created and two cancelled events
+        assertEquals(publishedBefore + 4, getMetrics().get("published").asLong());
+        // Closed days are neither bookable nor booked
+        JsonNode statistics = getStatistics();
+        assertEquals(statisticsBefore.get("calendarDays").asInt() - 3, statistics.get("calendarDays").asInt());
+        assertEquals(statisticsBefore.get("bookedDays").asInt(), statistics.get("bookedDays").asInt());
+
+        // Closed days can't be booked and closing again changes nothing
+        secondDTO.setStartDate(now.plusDays(5));
+        secondDTO.setEndDate(now.plusDays(5));
+        assertMessageResponse("The campsite for requested dates is occupied!", reservationsPostRequest(secondDTO, status().isBadRequest()));
+        summary = readJson(closuresRequest(post("/api/campsite/admin/closures"), now.plusDays(4), now.plusDays(6), status().isOk()));
+        assertEquals(0, summary.get("closedDays").asInt());
+        assertEquals(0, summary.get("cancelledReservationIds").size());
+
+        assertEquals("3", closuresRequest(delete("/api/campsite/admin/closures"), now.plusDays(2), now.plusDays(8), status().isOk())
+                .getResponse().getContentAsString());
+        assertEquals(7, getListOfDatesFromResponse(
+                availableDatesRangeGetRequest(now.plusDays(2).toString(), now.plusDays(8).toString(), status().isOk())).size());
+        assertEquals(statisticsBefore.get("calendarDays").asInt(), getStatistics().get("calendarDays").asInt());
+    }
+
+    @Test
+    public void closureOnlyWithinBookableDays() throws Exception {
+        assertMessageResponse("Closure allowed from tomorrow up to 30 days in advance!",
+                closuresRequest(post("/api/campsite/admin/closures"), now, now.plusDays(2), status().isBadRequest()));
+        assertMessageResponse("Closure allowed from tomorrow up to 30 days in advance!",
+                closuresRequest(post("/api/campsite/admin/closures"), now.plusDays(29), now.plusDays(31), status().isBadRequest()));
+        closuresRequest(delete("/api/campsite/admin/closures"), now.plusDays(3), now.plusDays(2), status().isBadRequest());
+    }
+
+    @Test
+    public void adminRequestsWithoutTokenAreRejected() throws Exception {
+        ReservationDTO reservationDTO = ReservationDTO.builder().email("cltest@domain.net").firstName("Clo").lastName("Sure")
+                .startDate(now.plusDays(9)).endDate(now.plusDays(9)).build();
+        ReservationDTO reservation = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        assertMessageResponse("Admin token is missing or invalid!", mockMvc.perform(post("/api/campsite/admin/closures")
+                        .param("startDate", now.plusDays(1).toString())
+                        .param("endDate", now.plusDays(30).toString()))
+                .andExpect(status().isUnauthorized())
+                .andReturn());
+        mockMvc.perform(get("/api/campsite/admin/reservations")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer guess")
+                        .param("startDate", now.plusDays(1).toString())
+                        .param("endDate", now.plusDays(30).toString()))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/campsite/admin/statistics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/campsite/admin/events/metrics"))
+                .andExpect(status().isUnauthorized());
+        reservationGetRequest(reservation.getReservationId(), status().isOk());
+
+        // Admin API is off unless token is configured
+        ReservationAdminController disabled = new ReservationAdminController(eventBus, reservationManager, reservationMapper,
+                dayClock, new ReservationProperties(), new AdminAuthorization(new ReservationProperties()));
+        AuthenticationException exception = assertThrows(AuthenticationException.class,
+                () -> disabled.getEventBusMetrics(ADMIN_AUTHORIZATION));
+        assertEquals("Admin API is disabled!", exception.getMessage());
+
+        reservationDeleteRequest(reservation.getReservationId(), reservation.getEmail(), status().isOk());
+    }
+
+    private MvcResult closuresRequest(MockHttpServletRequestBuilder request,
+                                      LocalDate startDate, LocalDate endDate, ResultMatcher resultMatcher) throws Exception {
+        return mockMvc.perform(request
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN_AUTHORIZATION)
+                        .param("startDate", startDate.toString())
+                        .param("endDate", endDate.toString()))
+                .andExpect(resultMatcher)
+                .andReturn();
+    }
+
+    private JsonNode readJson(MvcResult mvcResult) throws Exception {
+        return objectMapper.readTree(mvcResult.getResponse().getContentAsString());
+    }
+
+    private JsonNode getStatistics() throws Exception {
+        return readJson(mockMvc.perform(get("/api/campsite/admin/statistics")
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN_AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andReturn());
+    }
+
+    private JsonNode getMetrics() throws Exception {
+        return readJson(mockMvc.perform(get("/api/campsite/admin/events/metrics")
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN_AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andReturn());
+    }
+}
@@ -1,29 +1,41 @@
 package com.upgrade.volcano.island.reservation;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.upgrade.volcano.island.reservation.engine.MutationExecutor;
 import com.upgrade.volcano.island.reservation.exception.ValidationException;
 import com.upgrade.volcano.island.reservation.model.ReservationBO;
 import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
 import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.UnsupportedEncodingException;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Slf4j
 public class ReservationConcurrentTest extends ReservationBaseTest {
 
+    @Autowired
+    private MutationExecutor mutationExecutor;
+
     /*
      * 10 threads trying to add the same reservation, one succeeds 9 fails
      */
@@ -69,6 +81,54 @@ public class ReservationConcurrentTest extends ReservationBaseTest {
         reservationDeleteRequest(reservationSuccess.get().getReservationId(), reservationSuccess.get().getEmail(), status().isOk());
     }
 
+    /*
+     * Requests for occupied dates are rejected from the published snapshot while a long mutation holds the calendar
+     */
+    @Test
+    public void occupiedDatesRejectedWithoutEnteringCriticalSection() throws Exception {
+        ReservationDTO reservationDTO = ReservationDTO.builder().email("ccrtest@domain.net").firstName("Con").lastName("Current")
+                .startDate(now.plusDays(10)).endDate(now.plusDays(12)).build();
+        ReservationDTO reserved = reservationMapper.map(reservationManager.reserveCampsite(reservationMapper.map(reservationDTO)));
+
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> busy = service.submit(() -> mutationExecutor.execute(() -> {
+            entered.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            int requests = 10_000;
+            long[] nanos = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                long start = System.nanoTime();
+                try {
+                    reservationManager.reserveCampsite(reservationMapper.map(ReservationDTO.builder().email("ccrtest@domain.net")
+                            .firstName("Con").lastName("Current").startDate(now.plusDays(11)).endDate(now.plusDays(13)).build()));
+                    fail("Expected ValidationException");
+                } catch (ValidationException e) {
+                    assertEquals("The campsite for requested dates is occupied!", e.getMessage());
+                }
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            log.info("Occupied dates rejected while calendar is busy: p50 {} us, p99 {} us, max {} us",
+                    nanos[requests / 2] / 1000, nanos[requests * 99 / 100] / 1000, nanos[requests - 1] / 1000);
+            // Still busy, none of them waited for the calendar
+            assertEquals(1, release.getCount());
+        } finally {
+            release.countDown();
+            busy.get(5, TimeUnit.SECONDS);
+            service.shutdown();
+        }
+        reservationDeleteRequest(reserved.getReservationId(), reserved.getEmail(), status().isOk());
+    }
+
     @Data
     public class ExceptionCounter {
         private int count;
@@ -1,13 +1,29 @@
 package com.upgrade.volcano.island.reservation;
 
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
 import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import com.upgrade.volcano.island.reservation.util.BackupManifest;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import com.upgrade.volcano.island.reservation.util.ReservationRepo;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -17,8 +33,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 /**
  * Tests for reservation data backing up, restore, and remove tasks
  */
+@Slf4j
 public class ReservationDataMaintenanceTest extends ReservationBaseTest {
 
+    @Autowired
+    private ReservationRepo reservationRepo;
+    @Autowired
+    private DayClock dayClock;
+
     @Test
     public void backupAndRestoreReservations() throws Exception {
         // --- Add two reservations ----
@@ -155,5 +177,129 @@ public class ReservationDataMaintenanceTest extends ReservationBaseTest {
         // clean up
         reservationDeleteRequest(response1.getReservationId(), response1.getEmail(), status().isOk());
         reservationDeleteRequest(response2.getReservationId(), response2.getEmail(), status().isOk());
+
+        // Calendar still covers whole booking horizon
+        mvcResult = availableDatesGetRequest(status().isOk());
+        listOfAvailableDates = getListOfDatesFromResponse(mvcResult);
+        assertEquals(reservationProperties.getHorizonDays(), listOfAvailableDates.size());
+        assertEquals(now.plusDays(1), listOfAvailableDates.get(0));
+    }
+
+    @Test
+    public void backupGenerationsAreCompressedAndRotated() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("gztest@domain.net").firstName("Gen").lastName("Zip")
+                        .startDate(now.plusDays(7)).endDate(now.plusDays(8)).build();
+        ReservationDTO response = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        int generations = reservationProperties.getBackupGenerations();
+        for (int i = 0; i <= generations; i++) {
+            reservationManager.backupReservations();
+        }
+        BackupManifest manifest = reservationRepo.readManifest();
+        assertEquals(generations, manifest.getGenerations().size());
+        BackupManifest.Generation latest = manifest.getGenerations().get(0);
+        assertEquals(manifest.getGenerations().get(generations - 1).getId() + generations - 1, latest.getId());
+        assertEquals(reservationProperties.getHorizonDays(), latest.getDays());
+        assertTrue(latest.getDaysToReservationIdFile().endsWith(".gz"));
+
+        // Only generations listed in manifest are kept
+        Path backupDir = Paths.get(reservationProperties.getBackupDir());
+        try (Stream<Path> files = Files.list(backupDir)) {
+            assertEquals(2 * generations + 1, files.count());
+        }
+
+        // Restore reads latest generation
+        reservationDeleteRequest(response.getReservationId(), response.getEmail(), status().isOk());
+        reservationManager.restoreReservations();
+        reservationGetRequest(response.getReservationId(), status().isOk());
+
+        // clean up
+        reservationDeleteRequest(response.getReservationId(), response.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void restoreWithoutBackupStartsEmpty() throws Exception {
+        ReservationProperties properties = new ReservationProperties();
+        properties.setBackupDir(Files.createTempDirectory("no-backup").toString());
+        ReservationRepo freshRepo = new ReservationRepo(objectMapper, properties, dayClock);
+
+        assertTrue(freshRepo.readManifest().getGenerations().isEmpty());
+        ReservationRepo.Backup backup = freshRepo.restore();
+        assertTrue(backup.getDaysToReservationId().isEmpty());
+        assertTrue(backup.getReservationLookupMap().isEmpty());
+    }
+
+    @Test
+    public void restoreFallsBackToOlderGenerationWhenLatestIsCorrupt() throws Exception {
+        ReservationProperties properties = new ReservationProperties();
+        properties.setBackupDir(Files.createTempDirectory("corrupt-backup").toString());
+        ReservationRepo repo = new ReservationRepo(objectMapper, properties, dayClock);
+        ReservationBO older = ReservationBO.builder().reservationId("OLDERGEN").email("oldtest@domain.net")
+                .firstName("Old").lastName("Gen").startDate(now.plusDays(2)).endDate(now.plusDays(2)).build();
+        ReservationBO newer = ReservationBO.builder().reservationId("NEWERGEN").email("newtest@domain.net")
+                .firstName("New").lastName("Gen").startDate(now.plusDays(3)).endDate(now.plusDays(3)).build();
+        repo.backupReservations(Map.of(now.plusDays(2), "OLDERGEN"), Map.of("OLDERGEN", older));
+        repo.backupReservations(Map.of(now.plusDays(3), "NEWERGEN"), Map.of("NEWERGEN", newer));
+
+        // Crash truncated the latest generation
+        BackupManifest.Generation latest = repo.readManifest().getGenerations().get(0);
+        Path latestFile = Paths.get(properties.getBackupDir()).resolve(latest.getReservationLookupMapFile());
+        byte[] content = Files.readAllBytes(latestFile);
+        Files.write(latestFile, Arrays.copyOf(content, content.length / 2));
+
+        // Both maps come from the older generation
+        ReservationRepo.Backup backup = repo.restore();
+        assertEquals(Map.of(now.plusDays(2), "OLDERGEN"), backup.getDaysToReservationId());
+        assertEquals(Set.of("OLDERGEN"), backup.getReservationLookupMap().keySet());
+        assertEquals(older.getEmail(), backup.getReservationLookupMap().get("OLDERGEN").getEmail());
+    }
+
+    @Test
+    public void compressedBackupSizeAndWriteTime() throws Exception {
+        Map<LocalDate, String> daysToReservationId = new HashMap<>();
+        Map<String, ReservationBO> reservationLookupMap = new HashMap<>();
+        // Far more than a 30 day horizon holds, so sizes and times are measurable
+        for (int i = 0; i < 1_000; i++) {
+            String id = String.format("RES%05d", i);
+            LocalDate startDate = now.plusDays(1 + 3L * i);
+            reservationLookupMap.put(id, ReservationBO.builder().reservationId(id).email("bk" + i + "test@domain.net")
+                    .firstName("Back").lastName("Up").startDate(startDate).endDate(startDate.plusDays(2))
+                    .modifiedAt(dayClock.now()).build());
+            for (int day = 0; day < 3; day++) {
+                daysToReservationId.put(startDate.plusDays(day), id);
+            }
+        }
+        for (ReservationProperties.BackupCodec codec : ReservationProperties.BackupCodec.values()) {
+            ReservationProperties properties = new ReservationProperties();
+            properties.setBackupDir(Files.createTempDirectory("size-backup").toString());
+            properties.setBackupCodec(codec);
+            ReservationRepo repo = new ReservationRepo(objectMapper, properties, dayClock);
+            int backups = 2;
+            // First backup warms up
+            repo.backupReservations(daysToReservationId, reservationLookupMap);
+            long start = System.nanoTime();
+            for (int i = 0; i < backups; i++) {
+                repo.backupReservations(daysToReservationId, reservationLookupMap);
+            }
+            long nanos = (System.nanoTime() - start) / backups;
+            BackupManifest.Generation latest = repo.readManifest().getGenerations().get(0);
+            if (codec == ReservationProperties.BackupCodec.GZIP) {
+                // Uncompressed size is what earlier versions wrote
+                long raw = uncompressedSize(Paths.get(properties.getBackupDir()).resolve(latest.getDaysToReservationIdFile()))
+                        + uncompressedSize(Paths.get(properties.getBackupDir()).resolve(latest.getReservationLookupMapFile()));
+                log.info("Backup of {} reservations: uncompressed {} bytes", reservationLookupMap.size(), raw);
+                assertTrue(latest.getBytes() < raw);
+            }
+            log.info("Backup of {} reservations: {} {} bytes, written in {} ms", reservationLookupMap.size(), codec,
+                    latest.getBytes(), nanos / 1_000_000);
+            assertEquals(reservationLookupMap.keySet(), repo.restore().getReservationLookupMap().keySet());
+        }
+    }
+
+    private static long uncompressedSize(Path file) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
     }
 }
@@ -0,0 +1,194 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.engine.LockingMutationExecutor;
+import com.upgrade.volcano.island.reservation.event.AvailabilityFeed;
+import com.upgrade.volcano.island.reservation.event.EventBusMetrics;
+import com.upgrade.volcano.island.reservation.event.OperationEventLog;
+import com.upgrade.volcano.island.reservation.event.ReservationEvent;
+import com.upgrade.volcano.island.reservation.event.ReservationEventBus;
+import com.upgrade.volcano.island.reservation.event.ReservationEventSink;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import com.upgrade.volcano.island.reservation.util.ReservationRepo;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Event bus runs without Spring context, sinks are blocked on a latch to fill ring and spill queue.
+ */
+public class ReservationEventBusBackpressureTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private ReservationEventBus eventBus;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        eventBus.shutdown();
+    }
+
+    @Test
+    public void fullRingAndSpillDropWithoutWaiting() throws Exception {
+        eventBus = eventBus(new BlockedSink("billing", false));
+        // Ring of 4 and spill of 4, sink holds the first batch
+        long start = System.nanoTime();
+        int published = 0;
+        for (int i = 0; i < 20; i++) {
+            published += eventBus.publish(event(i)) ? 1 : 0;
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(published >= 4);
+        assertEquals(20 - published, eventBus.getMetrics().getDropped());
+
+        release.countDown();
+        awaitLag(0);
+        assertTrue(eventBus.publish(event(20)));
+        awaitLag(0);
+        // Every published event is delivered in publishing order
+        assertEquals(published + 1, received.size());
+        assertEquals("r20", received.get(received.size() - 1));
+        assertInOrder();
+    }
+
+    @Test
+    public void bookingNeverWaitsForBlockedSink() throws Exception {
+        ReservationProperties properties = properties();
+        properties.setEventLogSampleRate(0);
+        properties.setRateLimitEnabled(false);
+        eventBus = eventBus(properties, new BlockedSink("billing", false));
+        AvailabilityFeed availabilityFeed = new AvailabilityFeed(properties);
+        DayClock dayClock = new DayClock(Clock.systemDefaultZone());
+        ReservationManager manager = new ReservationManager(properties, new ReservationRepo(new ObjectMapper(), properties, dayClock),
+                availabilityFeed, eventBus, new LockingMutationExecutor(), dayClock, new OperationEventLog(properties, dayClock));
+        try {
+            long maxReserveNanos = 0;
+            LocalDate tomorrow = dayClock.getTodayDate().plusDays(1);
+            for (int i = 0; i < 20; i++) {
+                ReservationBO reservationBO = ReservationBO.builder().email("bptest@domain.net").firstName("Back").lastName("Pressure")
+                        .startDate(tomorrow.plusDays(i)).endDate(tomorrow.plusDays(i)).build();
+                long start = System.nanoTime();
+                manager.reserveCampsite(reservationBO);
+                maxReserveNanos = Math.max(maxReserveNanos, System.nanoTime() - start);
+            }
+            // Sink is blocked all along, events past ring and spill are dropped instead of stalling bookings
+            assertTrue(eventBus.getMetrics().getDropped() > 0);
+            assertTrue("Reserve took " + maxReserveNanos / 1_000_000 + " ms", maxReserveNanos < TimeUnit.MILLISECONDS.toNanos(100));
+            assertEquals(20, manager.snapshotReservations().length);
+        } finally {
+            manager.shutdown();
+            availabilityFeed.shutdown();
+        }
+    }
+
+    @Test
+    public void lossTolerantSinkSkipsOverwrittenEvents() throws Exception {
+        eventBus = eventBus(new BlockedSink("audit", true));
+        // Publisher never waits for loss tolerant sink
+        for (int i = 0; i < 20; i++) {
+            assertTrue(eventBus.publish(event(i)));
+        }
+        release.countDown();
+        awaitLag(0);
+        EventBusMetrics.SinkMetrics sink = eventBus.getMetrics().getSinks().get(0);
+        assertEquals(0, eventBus.getMetrics().getDropped());
+        assertTrue(sink.getLost() > 0);
+        assertEquals(20, sink.getProcessed() + sink.getLost());
+        // Whatever was delivered is in publishing order and ends with the latest events
+        assertEquals("r19", received.get(received.size() - 1));
+        assertInOrder();
+    }
+
+    @Test
+    public void idleSinkParksUntilPublish() throws Exception {
+        release.countDown();
+        eventBus = eventBus(new BlockedSink("idle", false));
+        Thread sinkThread = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("event-sink-idle")).findFirst().orElseThrow();
+        // Backoff is used up within a few milliseconds, then the thread waits without timeout
+        for (int i = 0; i < 100 && sinkThread.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, sinkThread.getState());
+        assertTrue(eventBus.publish(event(0)));
+        awaitLag(0);
+        assertEquals(List.of("r0"), received);
+    }
+
+    private static ReservationProperties properties() {
+        ReservationProperties properties = new ReservationProperties();
+        properties.setEventBusBufferSize(4);
+        properties.setEventBusMaxBatchSize(1);
+        properties.setEventBusSpillSize(4);
+        return properties;
+    }
+
+    private ReservationEventBus eventBus(ReservationEventSink sink) {
+        return eventBus(properties(), sink);
+    }
+
+    private ReservationEventBus eventBus(ReservationProperties properties, ReservationEventSink sink) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("sink", sink);
+        return new ReservationEventBus(properties, beanFactory.getBeanProvider(ReservationEventSink.class));
+    }
+
+    private void awaitLag(long lag) throws InterruptedException {
+        for (int i = 0; i < 100 && eventBus.getMetrics().getSinks().get(0).getLag() != lag; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(lag, eventBus.getMetrics().getSinks().get(0).getLag());
+    }
+
+    private void assertInOrder() {
+        for (int i = 1; i < received.size(); i++) {
+            assertTrue(Integer.parseInt(received.get(i - 1).substring(1)) < Integer.parseInt(received.get(i).substring(1)));
+        }
+    }
+
+    private static ReservationEvent event(int i) {
+        ReservationBO reservationBO = ReservationBO.builder().reservationId("r" + i).email("bptest@domain.net")
+                .firstName("Back").lastName("Pressure").startDate(LocalDate.now().plusDays(1)).endDate(LocalDate.now().plusDays(1)).build();
+        return ReservationEvent.created(reservationBO, Instant.now());
+    }
+
+    private class BlockedSink implements ReservationEventSink {
+        private final String name;
+        private final boolean lossTolerant;
+
+        private BlockedSink(String name, boolean lossTolerant) {
+            this.name = name;
+            this.lossTolerant = lossTolerant;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isLossTolerant() {
+            return lossTolerant;
+        }
+
+        @Override
+        public void onEvents(List<ReservationEvent> events) throws Exception {
+            release.await();
+            events.forEach(event -> received.add(event.getReservation().getReservationId()));
+        }
+    }
+}
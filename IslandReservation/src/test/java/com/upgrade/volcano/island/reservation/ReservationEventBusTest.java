@@ -0,0 +1,52 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationEventBusTest extends ReservationBaseTest {
+
+    @Test
+    public void sinksProcessPublishedEvents() throws Exception {
+        long publishedBefore = getMetrics().get("published").asLong();
+
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("evtest@domain.net").firstName("Eve").lastName("Ent")
+                        .startDate(now.plusDays(9)).endDate(now.plusDays(9)).build();
+        ReservationDTO response = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+        reservationDeleteRequest(response.getReservationId(), response.getEmail(), status().isOk());
+
+        // Created and cancelled events are published
+        JsonNode metrics = getMetrics();
+        assertEquals(publishedBefore + 2, metrics.get("published").asLong());
+        assertEquals(0, metrics.get("dropped").asLong());
+
+        // Audit sink catches up with the cursor
+        JsonNode auditSink = null;
+        for (int i = 0; i < 100; i++) {
+            auditSink = getMetrics().get("sinks").get(0);
+            if (auditSink.get("lag").asLong() == 0) {
+                break;
+            }
+            Thread.sleep(20);
+        }
+        assertEquals("audit-log", auditSink.get("name").asText());
+        assertEquals(0, auditSink.get("lag").asLong());
+        assertTrue(auditSink.get("processed").asLong() >= publishedBefore + 2);
+        assertTrue(auditSink.get("maxBatchSize").asLong() >= 1);
+    }
+
+    private JsonNode getMetrics() throws Exception {
+        String content = mockMvc.perform(get("/api/campsite/admin/events/metrics")
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN_AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(content);
+    }
+}
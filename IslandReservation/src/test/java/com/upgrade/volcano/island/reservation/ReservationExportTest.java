@@ -0,0 +1,135 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationExportTest extends ReservationBaseTest {
+
+    @Test
+    public void exportReservationsAsNdjson() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("extest@domain.net").firstName("Ex").lastName("Port")
+                        .startDate(now.plusDays(12)).endDate(now.plusDays(13)).build();
+        ReservationDTO response1 = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        Instant between = Instant.now();
+        Thread.sleep(5);
+
+        reservationDTO.setStartDate(now.plusDays(22));
+        reservationDTO.setEndDate(now.plusDays(22));
+        ReservationDTO response2 = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        // Full export holds both reservations, one per line
+        List<JsonNode> lines = exportGetRequest("/api/campsite/export/reservations", null, null, null);
+        assertEquals(2, lines.size());
+
+        // Range filter keeps only overlapping reservations
+        lines = exportGetRequest("/api/campsite/export/reservations", now.plusDays(13).toString(), now.plusDays(20).toString(), null);
+        assertEquals(1, lines.size());
+        assertEquals(response1.getReservationId(), lines.get(0).get("reservationId").asText());
+        assertEquals(now.plusDays(12).toString(), lines.get(0).get("startDate").asText());
+
+        // Modified since filter keeps only the later reservation
+        lines = exportGetRequest("/api/campsite/export/reservations", null, null, between.toString());
+        assertEquals(1, lines.size());
+        assertEquals(response2.getReservationId(), lines.get(0).get("reservationId").asText());
+
+        // Calendar export holds one line per day
+        lines = exportGetRequest("/api/campsite/export/calendar", now.plusDays(11).toString(), now.plusDays(13).toString(), null);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).get("reservationId").isNull());
+        assertEquals(response1.getReservationId(), lines.get(2).get("reservationId").asText());
+
+        // Modified since is inclusive, last seen modifiedAt brings the reservation again
+        lines = exportGetRequest("/api/campsite/export/reservations", null, null, between.toString());
+        String modifiedAt = lines.get(0).get("modifiedAt").asText();
+        lines = exportGetRequest("/api/campsite/export/reservations", null, null, modifiedAt);
+        assertEquals(1, lines.size());
+        assertEquals(response2.getReservationId(), lines.get(0).get("reservationId").asText());
+
+        // Cancelled reservation shows as tombstone in incremental export only
+        reservationDeleteRequest(response2.getReservationId(), response2.getEmail(), status().isOk());
+        lines = exportGetRequest("/api/campsite/export/reservations", null, null, between.toString());
+        assertEquals(1, lines.size());
+        assertEquals(response2.getReservationId(), lines.get(0).get("reservationId").asText());
+        assertTrue(lines.get(0).get("cancelled").asBoolean());
+        assertNull(lines.get(0).get("email"));
+        lines = exportGetRequest("/api/campsite/export/reservations", null, null, null);
+        assertEquals(1, lines.size());
+        assertNull(lines.get(0).get("cancelled"));
+
+        // clean up
+        reservationDeleteRequest(response1.getReservationId(), response1.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void updatedReservationTombstonesOldId() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("exuptest@domain.net").firstName("Ex").lastName("Update")
+                        .startDate(now.plusDays(25)).endDate(now.plusDays(26)).build();
+        ReservationDTO created = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+        Instant between = Instant.now();
+        Thread.sleep(5);
+
+        reservationDTO.setStartDate(now.plusDays(27));
+        reservationDTO.setEndDate(now.plusDays(27));
+        ReservationDTO updated = getReservationDTOFromResponse(
+                reservationPutRequest(created.getReservationId(), reservationDTO, status().isOk()));
+
+        // Incremental consumer gets the new reservation and drops the old id
+        List<JsonNode> lines = exportGetRequest("/api/campsite/export/reservations", null, null, between.toString());
+        assertEquals(2, lines.size());
+        assertEquals(updated.getReservationId(), lines.get(0).get("reservationId").asText());
+        assertNull(lines.get(0).get("cancelled"));
+        assertEquals(created.getReservationId(), lines.get(1).get("reservationId").asText());
+        assertTrue(lines.get(1).get("cancelled").asBoolean());
+
+        // clean up
+        reservationDeleteRequest(updated.getReservationId(), updated.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void exportRequiresAdminToken() throws Exception {
+        assertMessageResponse("Admin token is missing or invalid!", mockMvc.perform(get("/api/campsite/export/reservations"))
+                .andExpect(status().isUnauthorized())
+                .andReturn());
+        mockMvc.perform(get("/api/campsite/export/calendar")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer guess"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private List<JsonNode> exportGetRequest(String url, String startDate, String endDate, String modifiedSince) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get(url)
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN_AUTHORIZATION)
+                        .param("startDate", startDate)
+                        .param("endDate", endDate)
+                        .param("modifiedSince", modifiedSince))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String content = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,89 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationHoldTest extends ReservationBaseTest {
+
+    @Test
+    public void holdAndConfirm() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("hctest@domain.net").firstName("Hold").lastName("Confirm")
+                        .startDate(now.plusDays(22)).endDate(now.plusDays(23)).build();
+        int heldDays = reservationManager.getAvailabilitySnapshot().getHeldDays();
+        ReservationDTO hold = holdPostRequest(reservationDTO);
+        assertEquals(heldDays + 2, reservationManager.getAvailabilitySnapshot().getHeldDays());
+
+        // Held days are taken
+        List<LocalDate> availableDates = getListOfDatesFromResponse(availableDatesGetRequest(status().isOk()));
+        assertFalse(availableDates.contains(now.plusDays(22)));
+        reservationDTO.setEmail("hotest@domain.net");
+        MvcResult mvcResult = reservationsPostRequest(reservationDTO, status().isBadRequest());
+        assertMessageResponse("The campsite for requested dates is occupied!", mvcResult);
+
+        // Only guest who holds can confirm
+        mockMvc.perform(post("/api/campsite/hold/{holdId}/{userId}", hold.getReservationId(), "hotest@domain.net"))
+                .andExpect(status().isUnauthorized());
+        mvcResult = mockMvc.perform(post("/api/campsite/hold/{holdId}/{userId}", hold.getReservationId(), hold.getEmail()))
+                .andExpect(status().isCreated())
+                .andReturn();
+        ReservationDTO reservation = getReservationDTOFromResponse(mvcResult);
+        assertEquals(hold.getReservationId(), reservation.getReservationId());
+        reservationGetRequest(reservation.getReservationId(), status().isOk());
+        // Confirmed days count as booked right away
+        assertEquals(heldDays, reservationManager.getAvailabilitySnapshot().getHeldDays());
+
+        // Confirmed reservation doesn't expire
+        Thread.sleep(2500);
+        reservationGetRequest(reservation.getReservationId(), status().isOk());
+        mockMvc.perform(post("/api/campsite/hold/{holdId}/{userId}", hold.getReservationId(), hold.getEmail()))
+                .andExpect(status().isNotFound());
+
+        // clean up cancel reservation
+        reservationDeleteRequest(reservation.getReservationId(), reservation.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void holdReleasedAndExpired() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("hetest@domain.net").firstName("Hold").lastName("Expire")
+                        .startDate(now.plusDays(25)).endDate(now.plusDays(25)).build();
+
+        // Released explicitly
+        ReservationDTO hold = holdPostRequest(reservationDTO);
+        mockMvc.perform(delete("/api/campsite/hold/{holdId}/{userId}", hold.getReservationId(), hold.getEmail()))
+                .andExpect(status().isOk());
+        assertTrue(getListOfDatesFromResponse(availableDatesGetRequest(status().isOk())).contains(now.plusDays(25)));
+
+        // Released by expiry
+        holdPostRequest(reservationDTO);
+        assertFalse(getListOfDatesFromResponse(availableDatesGetRequest(status().isOk())).contains(now.plusDays(25)));
+        long deadline = System.currentTimeMillis() + 5000;
+        boolean available = false;
+        while (!available && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            available = getListOfDatesFromResponse(availableDatesGetRequest(status().isOk())).contains(now.plusDays(25));
+        }
+        assertTrue(available);
+    }
+
+    private ReservationDTO holdPostRequest(ReservationDTO reservationDTO) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(post("/api/campsite/holds")
+                        .content(objectMapper.writeValueAsString(reservationDTO))
+                        .contentType(contentType))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return getReservationDTOFromResponse(mvcResult);
+    }
+}
@@ -0,0 +1,201 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.admission.IdempotencyCache;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.exception.ConflictException;
+import com.upgrade.volcano.island.reservation.exception.ServiceUnavailableException;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationIdempotencyTest extends ReservationBaseTest {
+
+    @Test
+    public void retriesWithSameKeyGetFirstResponse() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("idtest@domain.net").firstName("Ida").lastName("Potent")
+                        .startDate(now.plusDays(18)).endDate(now.plusDays(19)).build();
+
+        // Retry of created reservation returns the same reservation instead of occupied dates error
+        ReservationDTO created = getReservationDTOFromResponse(postRequest("key-1", reservationDTO, status().isCreated()));
+        ReservationDTO retried = getReservationDTOFromResponse(postRequest("key-1", reservationDTO, status().isCreated()));
+        assertEquals(created.getReservationId(), retried.getReservationId());
+        assertEquals(1, getListOfReservationsFromResponse(
+                reservationsByEmailGetRequest("idtest@domain.net", null, null, status().isOk())).size());
+
+        // Without key or with a new key it's a new booking attempt
+        assertMessageResponse("The campsite for requested dates is occupied!",
+                postRequest("key-2", reservationDTO, status().isBadRequest()));
+        reservationsPostRequest(reservationDTO, status().isBadRequest());
+
+        // Same key with different body is rejected
+        ReservationDTO otherDTO = ReservationDTO.builder().email("idtest@domain.net").firstName("Ida").lastName("Potent")
+                .startDate(now.plusDays(20)).endDate(now.plusDays(20)).build();
+        assertMessageResponse("Idempotency-Key was already used with a different request!",
+                postRequest("key-1", otherDTO, status().isBadRequest()));
+
+        // Retry of update returns the updated reservation although the old id is gone
+        ReservationDTO updated = getReservationDTOFromResponse(
+                putRequest("key-3", created.getReservationId(), otherDTO, status().isOk()));
+        ReservationDTO updateRetried = getReservationDTOFromResponse(
+                putRequest("key-3", created.getReservationId(), otherDTO, status().isOk()));
+        assertEquals(updated.getReservationId(), updateRetried.getReservationId());
+        reservationPutRequest(created.getReservationId(), otherDTO, status().isNotFound());
+
+        // Failed requests are not cached, retry after dates are freed succeeds
+        ReservationDTO lateDTO = ReservationDTO.builder().email("id2test@domain.net").firstName("Late").lastName("Comer")
+                .startDate(now.plusDays(20)).endDate(now.plusDays(20)).build();
+        postRequest("key-4", lateDTO, status().isBadRequest());
+        reservationDeleteRequest(updated.getReservationId(), updated.getEmail(), status().isOk());
+        ReservationDTO late = getReservationDTOFromResponse(postRequest("key-4", lateDTO, status().isCreated()));
+
+        // clean up cancel reservation
+        reservationDeleteRequest(late.getReservationId(), late.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void inFlightKeysAreNotEvicted() throws Exception {
+        ReservationProperties properties = new ReservationProperties();
+        properties.setIdempotencyCacheSize(1);
+        IdempotencyCache cache = new IdempotencyCache(properties);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<String> slowAction = () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "first";
+        };
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.execute("slow", "post", "body", slowAction));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        // Completed keys past size push the cache over, the running key stays
+        assertEquals("other", cache.execute("other", "post", "body", () -> "other"));
+        assertEquals("another", cache.execute("another", "post", "body", () -> "another"));
+        assertEquals(2, cache.size());
+
+        // Retry joins the running request instead of booking again
+        CompletableFuture<String> retry = CompletableFuture.supplyAsync(() -> cache.execute("slow", "post", "body", slowAction));
+        release.countDown();
+        assertEquals("first", first.get(1, TimeUnit.SECONDS));
+        assertEquals("first", retry.get(1, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void errorOrEmptyResponseReleasesKey() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(new ReservationProperties());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.execute("error", "post", "body", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError("Calendar corrupted");
+        }));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        CompletableFuture<String> retry = CompletableFuture.supplyAsync(() -> cache.execute("error", "post", "body", () -> "second"));
+        // Give the retry time to join the running request
+        Thread.sleep(200);
+        release.countDown();
+        try {
+            first.get(1, TimeUnit.SECONDS);
+            fail("Expected AssertionError");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof AssertionError);
+        }
+        // Waiting retry is answered instead of waiting forever, the key is free for the next one
+        try {
+            retry.get(1, TimeUnit.SECONDS);
+            fail("Expected ServiceUnavailableException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServiceUnavailableException);
+        }
+        assertEquals(0, cache.size());
+        assertEquals("third", cache.execute("error", "post", "body", () -> "third"));
+
+        // Empty reactive response doesn't keep the key in flight
+        assertNull(cache.executeReactive("empty", "post", "body", Mono::<String>empty).block(Duration.ofSeconds(1)));
+        assertEquals("retried", cache.executeReactive("empty", "post", "body", () -> Mono.just("retried")).block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void retryWaitIsBounded() throws Exception {
+        ReservationProperties properties = new ReservationProperties();
+        properties.setIdempotencyWaitTimeout(Duration.ofMillis(50));
+        IdempotencyCache cache = new IdempotencyCache(properties);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.execute("slow", "post", "body", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "first";
+        }));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        try {
+            cache.execute("slow", "post", "body", () -> "second");
+            fail("Expected ConflictException");
+        } catch (ConflictException e) {
+            assertEquals("Request with the same Idempotency-Key is still in progress!", e.getMessage());
+        }
+        try {
+            cache.executeReactive("slow", "post", "body", () -> Mono.just("second")).block(Duration.ofSeconds(1));
+            fail("Expected ConflictException");
+        } catch (ConflictException e) {
+            assertEquals("Request with the same Idempotency-Key is still in progress!", e.getMessage());
+        }
+        release.countDown();
+        assertEquals("first", first.get(1, TimeUnit.SECONDS));
+        assertEquals("first", cache.execute("slow", "post", "body", () -> "second"));
+    }
+
+    private MvcResult postRequest(String idempotencyKey, ReservationDTO reservationDTO, ResultMatcher resultMatcher) throws Exception {
+        return mockMvc.perform(post("/api/campsite/reservations")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .content(objectMapper.writeValueAsString(reservationDTO))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(resultMatcher)
+                .andReturn();
+    }
+
+    private MvcResult putRequest(String idempotencyKey, String reservationId, ReservationDTO reservationDTO,
+                                 ResultMatcher resultMatcher) throws Exception {
+        return mockMvc.perform(put("/api/campsite/reservation/{reservationId}", reservationId)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .content(objectMapper.writeValueAsString(reservationDTO))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(resultMatcher)
+                .andReturn();
+    }
+}
@@ -0,0 +1,68 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationLookupByEmailTest extends ReservationBaseTest {
+
+    @Test
+    public void getReservationsByEmail() throws Exception {
+        // Same guest books twice, another guest books once
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("mbtest@domain.net").firstName("Molly").lastName("Banks")
+                        .startDate(now.plusDays(20)).endDate(now.plusDays(21)).build();
+        ReservationDTO response1 = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        reservationDTO.setStartDate(now.plusDays(6));
+        reservationDTO.setEndDate(now.plusDays(6));
+        ReservationDTO response2 = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        ReservationDTO otherDTO =
+                ReservationDTO.builder().email("ottest@domain.net").firstName("Otto").lastName("Trane")
+                        .startDate(now.plusDays(8)).endDate(now.plusDays(8)).build();
+        ReservationDTO response3 = getReservationDTOFromResponse(reservationsPostRequest(otherDTO, status().isCreated()));
+
+        // Both reservations are returned ordered by start date
+        MvcResult mvcResult = reservationsByEmailGetRequest("mbtest@domain.net", null, null, status().isOk());
+        List<ReservationDTO> reservations = getListOfReservationsFromResponse(mvcResult);
+        assertEquals(2, reservations.size());
+        assertEquals(response2.getStartDate(), reservations.get(0).getStartDate());
+        assertEquals(response1.getStartDate(), reservations.get(1).getStartDate());
+        // Only dates are exposed, reservationId with email is enough to cancel
+        assertFalse(mvcResult.getResponse().getContentAsString().contains(response1.getReservationId()));
+        assertFalse(mvcResult.getResponse().getContentAsString().contains("Molly"));
+
+        // Second page of size one holds the later reservation
+        mvcResult = reservationsByEmailGetRequest("mbtest@domain.net", 1, 1, status().isOk());
+        reservations = getListOfReservationsFromResponse(mvcResult);
+        assertEquals(1, reservations.size());
+        assertEquals(response1.getStartDate(), reservations.get(0).getStartDate());
+
+        // Cancelled reservation disappears from the index
+        reservationDeleteRequest(response2.getReservationId(), response2.getEmail(), status().isOk());
+        mvcResult = reservationsByEmailGetRequest("mbtest@domain.net", null, null, status().isOk());
+        reservations = getListOfReservationsFromResponse(mvcResult);
+        assertEquals(1, reservations.size());
+        assertEquals(response1.getStartDate(), reservations.get(0).getStartDate());
+
+        // Unknown email has no reservations
+        mvcResult = reservationsByEmailGetRequest("nobody@domain.net", null, null, status().isOk());
+        assertTrue(getListOfReservationsFromResponse(mvcResult).isEmpty());
+
+        // Invalid page size
+        mvcResult = reservationsByEmailGetRequest("mbtest@domain.net", 0, 0, status().isBadRequest());
+        assertMessageResponse("Page size must be between 1 and 100!", mvcResult);
+
+        // clean up
+        reservationDeleteRequest(response1.getReservationId(), response1.getEmail(), status().isOk());
+        reservationDeleteRequest(response3.getReservationId(), response3.getEmail(), status().isOk());
+    }
+}
@@ -0,0 +1,70 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.model.FreeRun;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationOverlapQueryTest extends ReservationBaseTest {
+
+    @Test
+    public void overlappingReservationsAndLongestFreeRun() throws Exception {
+        ReservationDTO firstDTO = ReservationDTO.builder().email("ovtest@domain.net").firstName("Over").lastName("Lap")
+                .startDate(now.plusDays(20)).endDate(now.plusDays(21)).build();
+        ReservationDTO first = getReservationDTOFromResponse(reservationsPostRequest(firstDTO, status().isCreated()));
+        ReservationDTO secondDTO = ReservationDTO.builder().email("ovtest@domain.net").firstName("Over").lastName("Lap")
+                .startDate(now.plusDays(23)).endDate(now.plusDays(23)).build();
+        ReservationDTO second = getReservationDTOFromResponse(reservationsPostRequest(secondDTO, status().isCreated()));
+
+        // First reservation reaches into range from the left
+        List<ReservationDTO> reservations = getListOfReservationsFromResponse(
+                overlappingGetRequest(now.plusDays(21), now.plusDays(25), status().isOk()));
+        assertEquals(2, reservations.size());
+        assertEquals(first.getReservationId(), reservations.get(0).getReservationId());
+        assertEquals(second.getReservationId(), reservations.get(1).getReservationId());
+        assertEquals(0, getListOfReservationsFromResponse(
+                overlappingGetRequest(now.plusDays(22), now.plusDays(22), status().isOk())).size());
+        overlappingGetRequest(now.plusDays(22), now.plusDays(21), status().isBadRequest());
+
+        // 22nd day alone and 24th-25th days are free
+        FreeRun freeRun = longestFreeRunGetRequest(now.plusDays(20), now.plusDays(25));
+        assertEquals(now.plusDays(24), freeRun.getStartDate());
+        assertEquals(now.plusDays(25), freeRun.getEndDate());
+        assertEquals(2, freeRun.getDays());
+        assertEquals(0, longestFreeRunGetRequest(now.plusDays(20), now.plusDays(21)).getDays());
+
+        // Cancelled reservations are removed from index
+        reservationDeleteRequest(first.getReservationId(), first.getEmail(), status().isOk());
+        reservationDeleteRequest(second.getReservationId(), second.getEmail(), status().isOk());
+        assertEquals(0, getListOfReservationsFromResponse(
+                overlappingGetRequest(now.plusDays(20), now.plusDays(25), status().isOk())).size());
+        assertEquals(6, longestFreeRunGetRequest(now.plusDays(20), now.plusDays(25)).getDays());
+    }
+
+    private MvcResult overlappingGetRequest(LocalDate startDate, LocalDate endDate, ResultMatcher resultMatcher) throws Exception {
+        return mockMvc.perform(get("/api/campsite/admin/reservations")
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN_AUTHORIZATION)
+                        .param("startDate", startDate.toString())
+                        .param("endDate", endDate.toString()))
+                .andExpect(resultMatcher)
+                .andReturn();
+    }
+
+    private FreeRun longestFreeRunGetRequest(LocalDate startDate, LocalDate endDate) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/campsite/reservation/availableDates/longestFreeRun")
+                        .param("startDate", startDate.toString())
+                        .param("endDate", endDate.toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(mvcResult.getResponse().getContentAsString(), FreeRun.class);
+    }
+}
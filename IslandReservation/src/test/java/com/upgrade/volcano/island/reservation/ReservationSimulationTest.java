@@ -0,0 +1,158 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.engine.LockingMutationExecutor;
+import com.upgrade.volcano.island.reservation.event.AvailabilityFeed;
+import com.upgrade.volcano.island.reservation.event.OperationEventLog;
+import com.upgrade.volcano.island.reservation.event.ReservationEventBus;
+import com.upgrade.volcano.island.reservation.event.ReservationEventSink;
+import com.upgrade.volcano.island.reservation.exception.ValidationException;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import com.upgrade.volcano.island.reservation.util.DayClock;
+import com.upgrade.volcano.island.reservation.util.ReservationRepo;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays synthetic booking, update and cancel traffic with a midnight purge per simulated day against the manager,
+ * on a simulated clock. Reports throughput, heap growth and purge cost, and checks state stays bounded by the horizon.
+ * Longer runs: -Dsimulation.days=365 -Dsimulation.opsPerDay=20000
+ */
+public class ReservationSimulationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationSimulationTest.class);
+
+    private final int days = Integer.getInteger("simulation.days", 120);
+    private final int opsPerDay = Integer.getInteger("simulation.opsPerDay", 500);
+    private final int reportEveryDays = Integer.getInteger("simulation.reportEveryDays", 30);
+
+    @Test
+    public void replayMonthsOfTraffic() {
+        SimulatedClock clock = new SimulatedClock(LocalDate.of(2021, 12, 1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        ReservationProperties properties = new ReservationProperties();
+        properties.setEventLogSampleRate(0);
+        properties.setRateLimitEnabled(false);
+        ReservationEventBus eventBus = new ReservationEventBus(properties,
+                new DefaultListableBeanFactory().getBeanProvider(ReservationEventSink.class));
+        AvailabilityFeed availabilityFeed = new AvailabilityFeed(properties);
+        DayClock dayClock = new DayClock(clock);
+        ReservationManager manager = new ReservationManager(properties, new ReservationRepo(new ObjectMapper(), properties, dayClock),
+                availabilityFeed, eventBus, new LockingMutationExecutor(), dayClock, new OperationEventLog(properties, dayClock));
+
+        Random random = new Random(7);
+        List<ReservationBO> booked = new ArrayList<>();
+        long totalOps = 0, trafficNanos = 0, purgeNanos = 0, maxPurgeNanos = 0, rejected = 0;
+        long startHeap = usedHeap();
+        try {
+            for (int day = 1; day <= days; day++) {
+                // Midnight
+                clock.advance(Duration.ofDays(1));
+                long purgeStart = System.nanoTime();
+                manager.purgePassedReservations();
+                long purge = System.nanoTime() - purgeStart;
+                purgeNanos += purge;
+                maxPurgeNanos = Math.max(maxPurgeNanos, purge);
+                long today = dayClock.getToday();
+                booked.removeIf(reservationBO -> reservationBO.getEndDate().toEpochDay() < today);
+
+                long trafficStart = System.nanoTime();
+                for (int op = 0; op < opsPerDay; op++) {
+                    int kind = random.nextInt(10);
+                    try {
+                        if (kind < 6 || booked.isEmpty()) {
+                            booked.add(manager.reserveCampsite(randomReservation(random, today, properties.getHorizonDays())));
+                        } else if (kind < 8) {
+                            ReservationBO reservationBO = booked.remove(random.nextInt(booked.size()));
+                            manager.cancelReservation(reservationBO.getReservationId(), reservationBO.getEmail());
+                        } else {
+                            int index = random.nextInt(booked.size());
+                            ReservationBO update = randomReservation(random, today, properties.getHorizonDays());
+                            update.setEmail(booked.get(index).getEmail());
+                            booked.set(index, manager.updateReservation(booked.get(index).getReservationId(), update));
+                        }
+                    } catch (ValidationException e) {
+                        rejected++;
+                    }
+                }
+                trafficNanos += System.nanoTime() - trafficStart;
+                totalOps += opsPerDay;
+
+                // Nothing survives past the horizon
+                assertEquals(properties.getHorizonDays(), manager.snapshotCalendar().size());
+                assertEquals(booked.size(), manager.snapshotReservations().length);
+                assertTrue(booked.size() <= properties.getHorizonDays());
+
+                if (day % reportEveryDays == 0 || day == days) {
+                    log.info("Simulated day {}: {} ops/s, {} rejected, purge avg {} us max {} us, heap growth {} KB, {} reservations",
+                            day, totalOps * 1_000_000_000L / Math.max(1, trafficNanos), rejected,
+                            purgeNanos / day / 1_000, maxPurgeNanos / 1_000, (usedHeap() - startHeap) / 1024, booked.size());
+                }
+            }
+        } finally {
+            manager.shutdown();
+            eventBus.shutdown();
+            availabilityFeed.shutdown();
+        }
+        assertEquals(LocalDate.of(2021, 12, 1).plusDays(days), dayClock.getTodayDate());
+    }
+
+    private static ReservationBO randomReservation(Random random, long today, int horizonDays) {
+        long startDay = today + 1 + random.nextInt(horizonDays);
+        long endDay = Math.min(today + horizonDays, startDay + random.nextInt(3));
+        int guest = random.nextInt(1000);
+        return ReservationBO.builder().email(guest + "sim@domain.net").firstName(guest + "fname").lastName(guest + "lname")
+                .startDate(LocalDate.ofEpochDay(startDay)).endDate(LocalDate.ofEpochDay(endDay)).build();
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Clock moved forward by the simulation only.
+     */
+    private static final class SimulatedClock extends Clock {
+        private volatile Instant instant;
+
+        SimulatedClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
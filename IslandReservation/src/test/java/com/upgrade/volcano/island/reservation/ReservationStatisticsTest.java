@@ -0,0 +1,152 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.upgrade.volcano.island.reservation.model.OccupancyReport;
+import com.upgrade.volcano.island.reservation.model.OccupancyStatistics;
+import com.upgrade.volcano.island.reservation.model.ReservationBO;
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationStatisticsTest extends ReservationBaseTest {
+
+    @Test
+    public void statisticsFollowBookingsUpdatesAndCancellations() throws Exception {
+        // Other tests share the context, compare against counters before
+        JsonNode before = statisticsGetRequest(7);
+
+        ReservationDTO reservationDTO = ReservationDTO.builder().email("sttest@domain.net").firstName("Stat").lastName("Istic")
+                .startDate(now.plusDays(25)).endDate(now.plusDays(26)).build();
+        ReservationDTO reserved = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+        reservationDTO.setStartDate(now.plusDays(25));
+        reservationDTO.setEndDate(now.plusDays(27));
+        ReservationDTO updated = getReservationDTOFromResponse(reservationPutRequest(reserved.getReservationId(), reservationDTO, status().isOk()));
+
+        JsonNode booked = statisticsGetRequest(7);
+        assertEquals(before.get("bookings").asLong() + 1, booked.get("bookings").asLong());
+        assertEquals(before.get("updates").asLong() + 1, booked.get("updates").asLong());
+        assertEquals(before.get("bookedDays").asInt() + 3, booked.get("bookedDays").asInt());
+        // Update replaced 2 day stay by 3 day stay
+        assertEquals(stayBucket(before, 2), stayBucket(booked, 2));
+        assertEquals(stayBucket(before, 3) + 1, stayBucket(booked, 3));
+        JsonNode today = booked.get("daily").get(6);
+        assertEquals(now.toString(), today.get("startDate").asText());
+        assertEquals(before.get("daily").get(6).get("bookings").asLong() + 1, today.get("bookings").asLong());
+        assertTrue(today.get("averageStayDays").isNumber());
+
+        reservationDeleteRequest(updated.getReservationId(), updated.getEmail(), status().isOk());
+        JsonNode cancelled = statisticsGetRequest(7);
+        assertEquals(before.get("cancellations").asLong() + 1, cancelled.get("cancellations").asLong());
+        assertEquals(before.get("bookedDays").asInt(), cancelled.get("bookedDays").asInt());
+        // Cancelled stay is no longer a current booking
+        assertEquals(stayBucket(before, 3), stayBucket(cancelled, 3));
+        assertEquals(before.get("averageStayDays").asDouble(), cancelled.get("averageStayDays").asDouble(), 1e-9);
+        assertEquals(before.get("daily").get(6).get("cancellations").asLong() + 1,
+                cancelled.get("daily").get(6).get("cancellations").asLong());
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/campsite/admin/statistics")
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN_AUTHORIZATION)
+                        .param("days", "0"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        assertMessageResponse("Statistics: days must be between 1 and " + OccupancyStatistics.HISTORY_DAYS + "!", mvcResult);
+    }
+
+    @Test
+    public void restoreRebuildsCurrentBookingAggregates() throws Exception {
+        ReservationDTO reservationDTO = ReservationDTO.builder().email("sttest@domain.net").firstName("Stat").lastName("Istic")
+                .startDate(now.plusDays(25)).endDate(now.plusDays(26)).build();
+        ReservationDTO reserved = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+        JsonNode booked = statisticsGetRequest(7);
+        reservationManager.backupReservations();
+
+        reservationDeleteRequest(reserved.getReservationId(), reserved.getEmail(), status().isOk());
+        JsonNode cancelled = statisticsGetRequest(7);
+        assertEquals(stayBucket(booked, 2) - 1, stayBucket(cancelled, 2));
+
+        // Restored reservation counts again, with lead time from the day it was booked
+        reservationManager.restoreReservations();
+        JsonNode restored = statisticsGetRequest(7);
+        assertEquals(stayBucket(booked, 2), stayBucket(restored, 2));
+        assertEquals(booked.get("averageStayDays").asDouble(), restored.get("averageStayDays").asDouble(), 1e-9);
+        assertEquals(booked.get("averageLeadDays").asDouble(), restored.get("averageLeadDays").asDouble(), 1e-9);
+        assertEquals(booked.get("leadTimeHistogram"), restored.get("leadTimeHistogram"));
+
+        reservationDeleteRequest(reserved.getReservationId(), reserved.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void dailyAndWeeklyOccupancyFromEndedDays() {
+        OccupancyStatistics statistics = new OccupancyStatistics();
+        LocalDate monday = now.with(DayOfWeek.MONDAY).minusWeeks(1);
+        long today = monday.plusDays(9).toEpochDay();
+        ReservationBO reservationBO = ReservationBO.builder().email("sttest@domain.net").firstName("Stat").lastName("Istic")
+                .startDate(monday.plusDays(5)).endDate(monday.plusDays(7)).build();
+        ReservationBO longerBO = ReservationBO.builder().email("sttest@domain.net").firstName("Stat").lastName("Istic")
+                .startDate(monday.plusDays(20)).endDate(monday.plusDays(21)).build();
+        statistics.booked(reservationBO, monday.plusDays(1).toEpochDay());
+        statistics.booked(longerBO, monday.plusDays(1).toEpochDay());
+        statistics.cancelled(longerBO, monday.plusDays(1).toEpochDay(), monday.plusDays(8).toEpochDay());
+        // Previous week Wednesday to Sunday ended with Saturday and Sunday booked, this week Monday booked and Tuesday free
+        for (int i = 2; i <= 8; i++) {
+            statistics.dayEnded(monday.plusDays(i).toEpochDay(), i >= 5 && i <= 7);
+        }
+        // Day out of history ring leaves no trace
+        statistics.dayEnded(monday.plusDays(2 - OccupancyStatistics.HISTORY_DAYS).toEpochDay(), true);
+
+        OccupancyReport report = statistics.report(today, 10, 30, 3);
+        assertEquals(0.1, report.getOccupancyRate(), 1e-9);
+        assertEquals(0.5, report.getCancellationRate(), 1e-9);
+        assertEquals(3, report.getAverageStayDays(), 1e-9);
+        assertEquals(4, report.getAverageLeadDays(), 1e-9);
+        // Lead buckets 1, 3, 7, 14, 30 and over
+        assertEquals(Integer.valueOf(7), report.getLeadTimeHistogram().get(2).getUpToDays());
+        assertEquals(1, report.getLeadTimeHistogram().get(2).getCount());
+        assertNull(report.getStayLengthHistogram().get(3).getUpToDays());
+
+        assertEquals(10, report.getDaily().size());
+        assertNull(report.getDaily().get(0).getOccupancyRate());
+        OccupancyReport.Period bookingDay = report.getDaily().get(1);
+        assertEquals(2, bookingDay.getBookings());
+        assertEquals(2.5, bookingDay.getAverageStayDays(), 1e-9);
+        assertEquals(11.5, bookingDay.getAverageLeadDays(), 1e-9);
+        assertNull(report.getDaily().get(2).getAverageStayDays());
+        assertEquals(0.0, report.getDaily().get(2).getOccupancyRate(), 1e-9);
+        assertEquals(1.0, report.getDaily().get(5).getOccupancyRate(), 1e-9);
+
+        assertEquals(2, report.getWeekly().size());
+        OccupancyReport.Period lastWeek = report.getWeekly().get(0);
+        assertEquals(monday, lastWeek.getStartDate());
+        assertEquals(2, lastWeek.getBookings());
+        assertEquals(0, lastWeek.getCancellationRate(), 1e-9);
+        assertEquals(2, lastWeek.getOccupiedDays());
+        assertEquals(5, lastWeek.getRecordedDays());
+        OccupancyReport.Period thisWeek = report.getWeekly().get(1);
+        assertEquals(1, thisWeek.getCancellations());
+        assertNull(thisWeek.getCancellationRate());
+        assertEquals(0.5, thisWeek.getOccupancyRate(), 1e-9);
+    }
+
+    private long stayBucket(JsonNode report, int index) {
+        return report.get("stayLengthHistogram").get(index - 1).get("count").asLong();
+    }
+
+    private JsonNode statisticsGetRequest(int days) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/campsite/admin/statistics")
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN_AUTHORIZATION)
+                        .param("days", String.valueOf(days)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(mvcResult.getResponse().getContentAsString());
+    }
+}
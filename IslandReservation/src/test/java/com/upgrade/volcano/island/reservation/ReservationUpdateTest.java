@@ -2,10 +2,18 @@ package com.upgrade.volcano.island.reservation;
 
 import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
 import org.junit.Test;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class ReservationUpdateTest extends ReservationBaseTest {
@@ -132,4 +140,72 @@ public class ReservationUpdateTest extends ReservationBaseTest {
 
         reservationDeleteRequest(response1.getReservationId(), response1.getEmail(), status().isOk());
     }
+
+    @Test
+    public void shiftReservationOverOwnDays() throws Exception {
+        // User one registers for now.plusDays(24) to now.plusDays(26) - success
+        ReservationDTO reservationDTO1 =
+                ReservationDTO.builder().email("sdtest@domain.net").firstName("Shifty").lastName("Days")
+                        .startDate(now.plusDays(24)).endDate(now.plusDays(26)).build();
+        ReservationDTO response1 = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO1, status().isCreated()));
+
+        // User two registers for now.plusDays(27) - success
+        ReservationDTO reservationDTO2 =
+                ReservationDTO.builder().email("nbtest@domain.net").firstName("Next").lastName("Bor")
+                        .startDate(now.plusDays(27)).endDate(now.plusDays(27)).build();
+        ReservationDTO response2 = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO2, status().isCreated()));
+
+        // User one shifts one day later - fails on user two day, old reservation stays untouched
+        reservationDTO1.setStartDate(now.plusDays(25));
+        reservationDTO1.setEndDate(now.plusDays(27));
+        MvcResult mvcResult = reservationPutRequest(response1.getReservationId(), reservationDTO1, status().isBadRequest());
+        assertMessageResponse("The campsite for requested dates is occupied!", mvcResult);
+        ReservationDTO unchanged = getReservationDTOFromResponse(reservationGetRequest(response1.getReservationId(), status().isOk()));
+        assertEquals(now.plusDays(24), unchanged.getStartDate());
+        List<LocalDate> availableDates = getListOfDatesFromResponse(
+                availableDatesRangeGetRequest(now.plusDays(23).toString(), now.plusDays(27).toString(), status().isOk()));
+        assertEquals(List.of(now.plusDays(23)), availableDates);
+
+        // User one shifts one day earlier - success, reusing own days
+        MvcResult feedResult = mockMvc.perform(get("/api/campsite/reservation/availableDates/feed")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        reservationDTO1.setStartDate(now.plusDays(23));
+        reservationDTO1.setEndDate(now.plusDays(25));
+        ReservationDTO response3 = getReservationDTOFromResponse(reservationPutRequest(response1.getReservationId(), reservationDTO1, status().isOk()));
+        assertEquals(now.plusDays(23), response3.getStartDate());
+        // Only the added and the dropped day changed, shared days were not freed and booked again
+        String feed = feedResult.getResponse().getContentAsString();
+        for (int i = 0; i < 100 && !feed.contains("\"available\":true"); i++) {
+            Thread.sleep(20);
+            feed = feedResult.getResponse().getContentAsString();
+        }
+        assertTrue(feed.contains("[{\"date\":\"" + now.plusDays(26) + "\",\"available\":true},"
+                + "{\"date\":\"" + now.plusDays(23) + "\",\"available\":false}]"));
+        assertFalse(feed.contains(now.plusDays(24).toString()));
+        assertFalse(feed.contains(now.plusDays(25).toString()));
+        availableDates = getListOfDatesFromResponse(
+                availableDatesRangeGetRequest(now.plusDays(23).toString(), now.plusDays(27).toString(), status().isOk()));
+        assertEquals(List.of(now.plusDays(26)), availableDates);
+
+        // clean up cancel reservation
+        reservationDeleteRequest(response3.getReservationId(), response3.getEmail(), status().isOk());
+        reservationDeleteRequest(response2.getReservationId(), response2.getEmail(), status().isOk());
+    }
+
+    @Test
+    public void unknownReservationOnOccupiedDaysNotFound() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("untest@domain.net").firstName("Una").lastName("Known")
+                        .startDate(now.plusDays(17)).endDate(now.plusDays(18)).build();
+        ReservationDTO response = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        // Occupied dates pre-check doesn't hide that the reservation doesn't exist
+        MvcResult mvcResult = reservationPutRequest("NOTEXIST", reservationDTO, status().isNotFound());
+        assertMessageResponse("Reservation not found!", mvcResult);
+
+        // clean up cancel reservation
+        reservationDeleteRequest(response.getReservationId(), response.getEmail(), status().isOk());
+    }
 }
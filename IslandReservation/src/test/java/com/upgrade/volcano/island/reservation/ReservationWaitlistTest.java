@@ -0,0 +1,84 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.rest.model.ReservationDTO;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReservationWaitlistTest extends ReservationBaseTest {
+
+    @Test
+    public void waitlistedRequestsBookedOnCancellation() throws Exception {
+        ReservationDTO reservationDTO =
+                ReservationDTO.builder().email("wotest@domain.net").firstName("Wait").lastName("Owner")
+                        .startDate(now.plusDays(12)).endDate(now.plusDays(14)).build();
+        ReservationDTO reservation = getReservationDTOFromResponse(reservationsPostRequest(reservationDTO, status().isCreated()));
+
+        // Free dates can't be waitlisted
+        ReservationDTO freeDTO = ReservationDTO.builder().email("wftest@domain.net").firstName("Wait").lastName("Free")
+                .startDate(now.plusDays(15)).endDate(now.plusDays(15)).build();
+        MvcResult mvcResult = waitlistPostRequest(freeDTO, status().isBadRequest());
+        assertMessageResponse("The campsite for requested dates is available!", mvcResult);
+
+        // Two guests wait for parts of the reservation, the third one leaves the waitlist
+        ReservationDTO firstDTO = ReservationDTO.builder().email("w1test@domain.net").firstName("Wait").lastName("First")
+                .startDate(now.plusDays(12)).endDate(now.plusDays(13)).build();
+        ReservationDTO first = getReservationDTOFromResponse(waitlistPostRequest(firstDTO, status().isCreated()));
+        ReservationDTO secondDTO = ReservationDTO.builder().email("w2test@domain.net").firstName("Wait").lastName("Second")
+                .startDate(now.plusDays(13)).endDate(now.plusDays(14)).build();
+        ReservationDTO second = getReservationDTOFromResponse(waitlistPostRequest(secondDTO, status().isCreated()));
+        ReservationDTO thirdDTO = ReservationDTO.builder().email("w3test@domain.net").firstName("Wait").lastName("Third")
+                .startDate(now.plusDays(14)).endDate(now.plusDays(14)).build();
+        ReservationDTO third = getReservationDTOFromResponse(waitlistPostRequest(thirdDTO, status().isCreated()));
+        mockMvc.perform(delete("/api/campsite/waitlist/{waitlistId}/{userId}", third.getReservationId(), third.getEmail()))
+                .andExpect(status().isOk());
+
+        // Cancellation books first guest, second guest overlaps and keeps waiting
+        reservationDeleteRequest(reservation.getReservationId(), reservation.getEmail(), status().isOk());
+        List<ReservationDTO> firstReservations = getListOfReservationsFromResponse(
+                reservationsByEmailGetRequest("w1test@domain.net", null, null, status().isOk()));
+        assertEquals(1, firstReservations.size());
+        assertEquals(now.plusDays(12), firstReservations.get(0).getStartDate());
+        assertEquals(0, getListOfReservationsFromResponse(
+                reservationsByEmailGetRequest("w2test@domain.net", null, null, status().isOk())).size());
+        assertEquals(0, getListOfReservationsFromResponse(
+                reservationsByEmailGetRequest("w3test@domain.net", null, null, status().isOk())).size());
+        List<LocalDate> availableDates = getListOfDatesFromResponse(availableDatesGetRequest(status().isOk()));
+        assertFalse(availableDates.contains(now.plusDays(12)));
+        assertFalse(availableDates.contains(now.plusDays(13)));
+        // Booked reservation keeps the waitlist id
+        ReservationDTO firstBooked = getReservationDTOFromResponse(reservationGetRequest(first.getReservationId(), status().isOk()));
+        assertEquals(now.plusDays(12), firstBooked.getStartDate());
+        reservationGetRequest(second.getReservationId(), status().isNotFound());
+
+        // First guest cancels with the waitlist id, second guest gets the dates
+        reservationDeleteRequest(first.getReservationId(), "w1test@domain.net", status().isOk());
+        List<ReservationDTO> secondReservations = getListOfReservationsFromResponse(
+                reservationsByEmailGetRequest("w2test@domain.net", null, null, status().isOk()));
+        assertEquals(1, secondReservations.size());
+        assertEquals(now.plusDays(13), secondReservations.get(0).getStartDate());
+
+        reservationGetRequest(second.getReservationId(), status().isOk());
+
+        // clean up cancel reservation
+        reservationDeleteRequest(second.getReservationId(), "w2test@domain.net", status().isOk());
+    }
+
+    private MvcResult waitlistPostRequest(ReservationDTO reservationDTO, ResultMatcher resultMatcher) throws Exception {
+        return mockMvc.perform(post("/api/campsite/waitlist")
+                        .content(objectMapper.writeValueAsString(reservationDTO))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(resultMatcher)
+                .andReturn();
+    }
+}
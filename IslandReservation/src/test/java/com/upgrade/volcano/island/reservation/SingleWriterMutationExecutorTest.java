@@ -0,0 +1,183 @@
+package com.upgrade.volcano.island.reservation;
+
+import com.upgrade.volcano.island.reservation.configuration.ReservationProperties;
+import com.upgrade.volcano.island.reservation.engine.LockingMutationExecutor;
+import com.upgrade.volcano.island.reservation.engine.MutationExecutor;
+import com.upgrade.volcano.island.reservation.engine.SingleWriterMutationExecutor;
+import com.upgrade.volcano.island.reservation.exception.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Single writer engine runs without Spring context, commands mutate plain unsynchronized state.
+ */
+@Slf4j
+public class SingleWriterMutationExecutorTest {
+
+    private SingleWriterMutationExecutor executor;
+    // Owned by the writer thread
+    private long counter;
+
+    @Before
+    public void setUp() {
+        executor = new SingleWriterMutationExecutor(new ReservationProperties());
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void concurrentCommandsAreAppliedOneAtATime() throws Exception {
+        int numberOfThreads = 8;
+        int commandsPerThread = 10_000;
+        ExecutorService service = Executors.newFixedThreadPool(numberOfThreads);
+        CountDownLatch latch = new CountDownLatch(numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            service.submit(() -> {
+                for (int j = 0; j < commandsPerThread; j++) {
+                    executor.execute(() -> counter++);
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        service.shutdown();
+        assertEquals((long) numberOfThreads * commandsPerThread, (long) executor.execute(() -> counter));
+    }
+
+    @Test
+    public void commandsKeepSubmissionOrderAndNestedCommandsRunInline() {
+        List<Integer> applied = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            executor.submit(() -> applied.add(value));
+        }
+        // Nested command would dead lock if it was queued behind its parent
+        int size = executor.execute(() -> executor.execute(applied::size));
+        assertEquals(100, size);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) applied.get(i));
+        }
+    }
+
+    @Test
+    public void commandExceptionIsRethrownAsIs() {
+        try {
+            executor.execute(() -> {
+                throw new ValidationException("The campsite for requested dates is occupied!");
+            });
+            fail("Expected ValidationException");
+        } catch (ValidationException e) {
+            assertEquals("The campsite for requested dates is occupied!", e.getMessage());
+        }
+        // Writer keeps running after failed command
+        assertEquals(1, (int) executor.execute(() -> 1));
+    }
+
+    @Test
+    public void commandErrorIsRethrownAsIs() {
+        try {
+            executor.execute(() -> {
+                throw new AssertionError("Calendar corrupted");
+            });
+            fail("Expected AssertionError");
+        } catch (AssertionError e) {
+            assertEquals("Calendar corrupted", e.getMessage());
+        }
+        assertEquals(1, (int) executor.execute(() -> 1));
+    }
+
+    @Test
+    public void contendedThroughputOfLockingAndSingleWriterEngines() throws Exception {
+        // Same reserve like workload on both engines: 8 request threads, each command rewrites a short run of days.
+        // Numbers are logged for comparison, not asserted, they depend on the machine
+        MutationExecutor locking = new LockingMutationExecutor();
+        for (int round = 0; round < 2; round++) {
+            // First round warms up both engines
+            long lockingOps = contendedThroughput(locking);
+            long singleWriterOps = contendedThroughput(executor);
+            if (round == 1) {
+                log.info("Contended mutations: LOCKING {} ops/s, SINGLE_WRITER {} ops/s", lockingOps, singleWriterOps);
+            }
+        }
+    }
+
+    private long contendedThroughput(MutationExecutor engine) throws Exception {
+        int numberOfThreads = 8;
+        int commandsPerThread = 20_000;
+        String[] calendar = new String[64];
+        ExecutorService service = Executors.newFixedThreadPool(numberOfThreads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            String id = "THREAD" + i;
+            workers.add(service.submit(() -> {
+                start.await();
+                for (int j = 0; j < commandsPerThread; j++) {
+                    int firstDay = j % (calendar.length - 3);
+                    engine.execute(() -> {
+                        for (int day = firstDay; day < firstDay + 3; day++) {
+                            calendar[day] = id;
+                        }
+                        counter++;
+                    });
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        service.shutdown();
+        return (long) numberOfThreads * commandsPerThread * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+    }
+
+    @Test
+    public void commandsSubmittedDuringShutdownAreCompleted() throws Exception {
+        int numberOfThreads = 4;
+        ExecutorService service = Executors.newFixedThreadPool(numberOfThreads);
+        List<Future<List<CompletableFuture<Long>>>> submitted = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            submitted.add(service.submit(() -> {
+                List<CompletableFuture<Long>> futures = new ArrayList<>();
+                for (int j = 0; j < 20_000; j++) {
+                    futures.add(executor.submit(() -> counter++));
+                }
+                return futures;
+            }));
+        }
+        executor.shutdown();
+        // Every command either ran or failed, none is left waiting
+        for (Future<List<CompletableFuture<Long>>> future : submitted) {
+            for (CompletableFuture<Long> command : future.get(30, TimeUnit.SECONDS)) {
+                try {
+                    command.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+        }
+        service.shutdown();
+    }
+}